@@ -0,0 +1,58 @@
+package com.example.app.bench;
+
+import com.example.app.ui.MainFrame;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pintura (sem tela) do banner da janela principal em 560x90: {@code direct} refaz o
+ * desenho a cada chamada, como antes do cache; {@code cached} pinta o componente, que só
+ * copia a imagem já renderizada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BannerBenchmark {
+
+    private static final int WIDTH = 560;
+    private static final int HEIGHT = 90;
+
+    private MainFrame.BannerPanel banner;
+    private BufferedImage frame;
+    private Graphics2D g;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        banner = new MainFrame.BannerPanel();
+        banner.setSize(WIDTH, HEIGHT);
+        frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage direct() {
+        Color bg = banner.getBackground();
+        g.setColor(bg);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        MainFrame.BannerPanel.paintBanner(g, WIDTH, HEIGHT, banner.getFont());
+        return frame;
+    }
+
+    @Benchmark
+    public BufferedImage cached() {
+        banner.paint(g);
+        return frame;
+    }
+}
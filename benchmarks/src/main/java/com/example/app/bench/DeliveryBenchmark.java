@@ -0,0 +1,67 @@
+package com.example.app.bench;
+
+import com.example.app.model.Message;
+import com.example.app.service.DeliveryEngine;
+import com.example.app.service.FakeSmtpServer;
+import com.example.app.service.SmtpSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Vazão da entrega SMTP contra o {@link FakeSmtpServer}: cada operação enfileira um
+ * lote e espera todas as mensagens serem aceitas. Com {@code failEvery = 5} uma em
+ * cada cinco transações falha com 451 e passa pela fila de novas tentativas.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeliveryBenchmark {
+
+    private static final int BATCH = 500;
+
+    @Param({"0", "5"})
+    int failEvery;
+
+    private FakeSmtpServer server;
+    private DeliveryEngine engine;
+    private Path outbox;
+    private Message[] pool;
+    private long target;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = new FakeSmtpServer(failEvery);
+        outbox = Files.createTempFile("outbox", ".bin");
+        Files.delete(outbox);
+        SmtpSettings settings = new SmtpSettings("127.0.0.1", server.getPort(), "form@exemplo.com.br", "contato@exemplo.com.br");
+        settings.setRetryBaseMillis(1);
+        settings.setRetryMaxMillis(10);
+        engine = new DeliveryEngine(settings, outbox);
+        pool = Samples.messages(BATCH, 200);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        engine.close();
+        server.close();
+        Files.deleteIfExists(outbox);
+        System.out.printf("%n%d mensagens em %d conexões, %d novas tentativas%n",
+                server.getAccepted(), server.getConnections(), engine.getRetried());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void deliverBatch() {
+        target += BATCH;
+        for (Message m : pool) engine.enqueue(m);
+        while (engine.getDelivered() < target) LockSupport.parkNanos(50_000);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.app.bench;
+
+import com.example.app.model.Message;
+import com.example.app.model.MessageHistory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Inclusão, cópia, busca por e-mail e busca textual no histórico em várias capacidades e backends. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int capacity;
+
+    @Param({"HEAP", "OFF_HEAP"})
+    MessageHistory.Backend backend;
+
+    private MessageHistory history;
+    private Message[] pool;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = Samples.messages(4096, 200);
+        history = new MessageHistory(capacity, backend);
+        for (int i = 0; i < capacity; i++) history.addMessage(pool[i % pool.length]);
+    }
+
+    @Benchmark
+    public void addMessage() {
+        history.addMessage(pool[next++ & (pool.length - 1)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Message> getAllMessages() {
+        return history.getAllMessages();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Message> getMessagesByEmail() {
+        return history.getMessagesByEmail("Remetente42@Exemplo.com.br");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long[] search() {
+        return history.searchSeqs("entrega atras");
+    }
+}
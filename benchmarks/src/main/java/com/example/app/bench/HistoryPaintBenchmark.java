@@ -0,0 +1,88 @@
+package com.example.app.bench;
+
+import com.example.app.model.MessageHistory;
+import com.example.app.ui.HistoryPanel;
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JViewport;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pintura completa (sem tela) de um quadro da tabela do histórico: o painel é
+ * dimensionado para 800x600, o viewport desce 3 linhas por chamada, como em uma rolagem
+ * contínua, e a área visível é pintada em uma imagem. O orçamento para 60 fps é 16,7 ms;
+ * rode com {@code -prof gc} para ver a alocação por quadro.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class HistoryPaintBenchmark {
+
+    @Param({"1000000"})
+    int capacity;
+
+    @Param({"HEAP", "OFF_HEAP"})
+    MessageHistory.Backend backend;
+
+    private JScrollPane scrollPane;
+    private JViewport viewport;
+    private int rowHeight;
+    private int maxY;
+    private int y;
+    private BufferedImage frame;
+    private Graphics2D g;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        MessageHistory history = new MessageHistory(capacity, backend);
+        var pool = Samples.messages(4096, 200);
+        for (int i = 0; i < capacity; i++) history.addMessage(pool[i % pool.length]);
+
+        HistoryPanel panel = new HistoryPanel(history);
+        panel.refreshHistory();
+        JTable table = HistoryTableBenchmark.findTable(panel);
+        ((javax.swing.table.AbstractTableModel) table.getModel()).fireTableDataChanged();
+        panel.setSize(800, 600);
+        layout(panel);
+        scrollPane = (JScrollPane) table.getParent().getParent();
+        viewport = scrollPane.getViewport();
+        layout(scrollPane);
+        rowHeight = table.getRowHeight();
+        maxY = table.getRowCount() * rowHeight - viewport.getHeight();
+
+        frame = new BufferedImage(scrollPane.getWidth(), scrollPane.getHeight(), BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintFrame() {
+        y += 3 * rowHeight;
+        if (y > maxY) y = 0;
+        viewport.setViewPosition(new Point(0, y));
+        scrollPane.paint(g);
+        return frame;
+    }
+
+    /** Sem janela não há {@code validate()}: aplica os layouts manualmente. */
+    private static void layout(Component c) {
+        if (c instanceof Container container) {
+            container.doLayout();
+            for (Component child : container.getComponents()) layout(child);
+        }
+    }
+}
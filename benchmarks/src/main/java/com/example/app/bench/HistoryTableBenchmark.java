@@ -0,0 +1,64 @@
+package com.example.app.bench;
+
+import com.example.app.model.MessageHistory;
+import com.example.app.ui.HistoryPanel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.swing.JTable;
+import javax.swing.table.TableModel;
+import java.awt.Component;
+import java.awt.Container;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de uma "pintura" da tabela do histórico: {@code getValueAt} para as linhas
+ * visíveis (30) em todas as colunas. Roda sem tela ({@code java.awt.headless}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class HistoryTableBenchmark {
+
+    private static final int VISIBLE_ROWS = 30;
+
+    @Param({"1000", "100000"})
+    int capacity;
+
+    @Param({"0", "middle"})
+    String scroll;
+
+    private TableModel model;
+    private int firstRow;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        MessageHistory history = new MessageHistory(capacity);
+        var pool = Samples.messages(4096, 200);
+        for (int i = 0; i < capacity; i++) history.addMessage(pool[i % pool.length]);
+        model = findTable(new HistoryPanel(history)).getModel();
+        firstRow = "0".equals(scroll) ? 0 : capacity / 2;
+    }
+
+    @Benchmark
+    public void paintVisibleRows(Blackhole bh) {
+        int columns = model.getColumnCount();
+        for (int row = firstRow; row < firstRow + VISIBLE_ROWS; row++) {
+            for (int col = 0; col < columns; col++) bh.consume(model.getValueAt(row, col));
+        }
+    }
+
+    static JTable findTable(Container root) {
+        for (Component c : root.getComponents()) {
+            if (c instanceof JTable table) return table;
+            if (c instanceof Container child) {
+                JTable found = findTable(child);
+                if (found != null) return found;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.app.bench;
+
+import com.example.app.service.PreferencesService;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Dimension;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/** Carga do arquivo de preferências e ciclo completo de alteração + gravação. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreferencesBenchmark {
+
+    private Path dir;
+    private Path file;
+    private PreferencesService prefs;
+    private int width = 560;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("prefs-bench");
+        file = dir.resolve("prefs.properties");
+        prefs = new PreferencesService(file);
+        prefs.saveName("João Silva");
+        prefs.saveLastEmail("joao.silva@empresa.com.br");
+        prefs.saveWindowSize(new Dimension(720, 580));
+        prefs.setHistoryMaxSize(50);
+        prefs.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public PreferencesService load() {
+        return new PreferencesService(file);
+    }
+
+    @Benchmark
+    public Dimension read() {
+        return prefs.loadWindowSize();
+    }
+
+    @Benchmark
+    public void saveRoundTrip() {
+        width = width == 560 ? 561 : 560;
+        prefs.saveWindowSize(new Dimension(width, 440));
+        prefs.flush();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.app.bench;
+
+import com.example.app.model.Message;
+
+import java.util.Random;
+
+/** Dados sintéticos compartilhados pelos benchmarks. */
+final class Samples {
+    private static final String[] WORDS = (
+            "olá bom dia gostaria de saber sobre meu pedido entrega atrasada nota fiscal boleto " +
+            "cobrança senha acesso conta cadastro erro sistema produto troca devolução reembolso " +
+            "prazo obrigado aguardo retorno").split(" ");
+
+    private Samples(){}
+
+    /** {@code count} mensagens de {@code senders} remetentes, com corpos de 10 a 60 palavras. */
+    static Message[] messages(int count, int senders) {
+        Random random = new Random(42);
+        Message[] out = new Message[count];
+        for (int i = 0; i < count; i++) {
+            int sender = random.nextInt(senders);
+            out[i] = new Message("Remetente " + sender, "remetente" + sender + "@exemplo.com.br", body(random));
+        }
+        return out;
+    }
+
+    private static String body(Random random) {
+        int words = 10 + random.nextInt(50);
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.app.bench;
+
+import com.example.app.util.Validation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Validação de e-mail e de campo obrigatório com entradas realistas e adversárias. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"realistic", "invalid", "padded", "adversarial"})
+    String input;
+
+    private String email;
+    private String body;
+
+    @Setup
+    public void setup() {
+        switch (input) {
+            case "realistic" -> {
+                email = "joao.silva@empresa.com.br";
+                body = "Olá, gostaria de saber o prazo de entrega do meu pedido.";
+            }
+            case "invalid" -> {
+                email = "joao.silva@empresa";
+                body = "   ";
+            }
+            case "padded" -> {
+                email = " ".repeat(500) + "joao.silva@empresa.com.br" + " ".repeat(500);
+                body = " ".repeat(100_000) + "x" + " ".repeat(100_000);
+            }
+            default -> {
+                // Sem '.' no domínio: força a varredura completa
+                email = "a".repeat(10_000) + "@" + "b".repeat(10_000);
+                body = " ".repeat(1_000_000);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean isEmail() {
+        return Validation.isEmail(email);
+    }
+
+    @Benchmark
+    public boolean notBlank() {
+        return Validation.notBlank(body);
+    }
+}
@@ -1,23 +1,61 @@
 package com.example.app;
 
+import com.example.app.service.PreferencesService;
+import com.example.app.util.EdtWatchdog;
+import com.example.app.util.IconLoader;
+
 import javax.swing.*;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
-/** Ponto de entrada da aplicação. */
+/**
+ * Ponto de entrada da aplicação.
+ * Ícones e preferências carregam em paralelo enquanto o Look & Feel é aplicado; journal,
+ * histórico compartilhado e caixa de saída abrem em segundo plano enquanto a janela é montada.
+ * Com {@code -Dapp.startupTiming=true} o tempo até a primeira pintura é impresso;
+ * com {@code -Dapp.exitAfterFirstPaint=true} a aplicação encerra logo em seguida
+ * (usado para gerar o arquivo AppCDS).
+ * O vigia da EDT roda por padrão ({@code -Dapp.edtWatchdog=false} desliga); o limite de
+ * travamento vem de {@code -Dapp.edtWatchdog.thresholdMillis} (padrão 500).
+ */
 public class App {
+    private static final long WATCHDOG_INTERVAL_MILLIS = 100;
+
     public static void main(String[] args) {
-        // Tenta aplicar Nimbus antes de criar a UI
+        long start = System.nanoTime();
+
+        // Decodifica os ícones e lê as preferências em segundo plano
+        IconLoader.preload(18, 20, 32);
+        CompletableFuture<PreferencesService> prefs = CompletableFuture.supplyAsync(PreferencesService::new);
+
+        // Aplica Nimbus diretamente, sem varrer os Look & Feels instalados
         try {
-            for (UIManager.LookAndFeelInfo info : UIManager.getInstalledLookAndFeels()) {
-                if ("Nimbus".equals(info.getName())) {
-                    UIManager.setLookAndFeel(info.getClassName());
-                    break;
-                }
-            }
+            UIManager.setLookAndFeel("javax.swing.plaf.nimbus.NimbusLookAndFeel");
         } catch (Exception ignored) { }
 
+        if (!"false".equals(System.getProperty("app.edtWatchdog"))) {
+            EdtWatchdog.start(WATCHDOG_INTERVAL_MILLIS, Long.getLong("app.edtWatchdog.thresholdMillis", 500),
+                    Path.of(System.getProperty("user.home"), ".swing_forms_summary.edt.log"));
+        }
+
         SwingUtilities.invokeLater(() -> {
-            com.example.app.ui.MainFrame frame = new com.example.app.ui.MainFrame();
+            com.example.app.ui.MainFrame frame = new com.example.app.ui.MainFrame(prefs.join());
+            frame.setOnFirstPaint(() -> firstPaint(frame, start));
             frame.setVisible(true);
         });
     }
+
+    private static void firstPaint(JFrame frame, long start) {
+        if (Boolean.getBoolean("app.startupTiming")) {
+            long sinceMain = (System.nanoTime() - start) / 1_000_000;
+            String sinceJvm = ProcessHandle.current().info().startInstant()
+                    .map(t -> (System.currentTimeMillis() - t.toEpochMilli()) + " ms desde o início da JVM")
+                    .orElse("início da JVM indisponível");
+            System.err.println("Primeira pintura: " + sinceMain + " ms desde main (" + sinceJvm + ")");
+        }
+        if (Boolean.getBoolean("app.exitAfterFirstPaint")) {
+            frame.dispose();
+            System.exit(0);
+        }
+    }
 }
@@ -0,0 +1,211 @@
+package com.example.app;
+
+import com.example.app.model.Message;
+import com.example.app.model.MessageHistory;
+import com.example.app.service.HistoryJournal;
+import com.example.app.service.ImportReader;
+import com.example.app.service.PreferencesService;
+import com.example.app.util.Validation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Importação em lote sem interface gráfica.
+ * <pre>
+ * java -cp swing-forms-summary.jar com.example.app.BulkImport contatos.csv
+ *      [--format csv|jsonl] [--rejects arquivo] [--batch 4096] [--threads N] [--no-journal]
+ * </pre>
+ * O arquivo é lido em blocos de {@code --batch} registros: enquanto um bloco é validado
+ * em paralelo no pool fork-join, o seguinte já está sendo lido, e nunca há mais de dois
+ * blocos em memória. Os válidos entram no histórico (e no journal da aplicação) um bloco
+ * por vez; os rejeitados vão para {@code <arquivo>.rejeitados} com linha e motivo.
+ */
+public final class BulkImport {
+
+    private final Path input;
+    private Path rejects;
+    private String format;
+    private int batch = 4096;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean journal = true;
+
+    private long read;
+    private long accepted;
+    private long rejected;
+
+    private BulkImport(Path input) {
+        this.input = input;
+    }
+
+    public static void main(String[] args) {
+        BulkImport job;
+        try {
+            job = parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: BulkImport <arquivo> [--format csv|jsonl] [--rejects arquivo]"
+                    + " [--batch N] [--threads N] [--no-journal]");
+            System.exit(2);
+            return;
+        }
+        try {
+            job.run();
+        } catch (IOException e) {
+            System.err.println("Erro ao importar: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static BulkImport parseArgs(String[] args) {
+        BulkImport job = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                if (job != null) throw new IllegalArgumentException("Mais de um arquivo informado: " + arg);
+                job = new BulkImport(Path.of(arg));
+                continue;
+            }
+            if ("--no-journal".equals(arg)) {
+                if (job == null) throw new IllegalArgumentException("Informe o arquivo antes das opções");
+                job.journal = false;
+                continue;
+            }
+            if (job == null) throw new IllegalArgumentException("Informe o arquivo antes das opções");
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Valor ausente para " + arg);
+            String value = args[++i];
+            switch (arg) {
+                case "--format" -> job.format = value.toLowerCase(Locale.ROOT);
+                case "--rejects" -> job.rejects = Path.of(value);
+                case "--batch" -> job.batch = Math.max(1, number(arg, value));
+                case "--threads" -> job.threads = Math.max(1, number(arg, value));
+                default -> throw new IllegalArgumentException("Opção desconhecida: " + arg);
+            }
+        }
+        if (job == null) throw new IllegalArgumentException("Informe o arquivo a importar");
+        if (job.format == null) job.format = job.input.toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? "csv" : "jsonl";
+        if (!job.format.equals("csv") && !job.format.equals("jsonl")) {
+            throw new IllegalArgumentException("Formato desconhecido: " + job.format);
+        }
+        if (job.rejects == null) job.rejects = job.input.resolveSibling(job.input.getFileName() + ".rejeitados");
+        return job;
+    }
+
+    private static int number(String option, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + option + ": " + value);
+        }
+    }
+
+    private void run() throws IOException {
+        PreferencesService prefs = new PreferencesService();
+        MessageHistory history = new MessageHistory(prefs.getHistoryMaxSize(), prefs.getHistoryBackend());
+        HistoryJournal historyJournal = null;
+        if (journal) {
+            Path file = Path.of(System.getProperty("user.home"), ".swing_forms_summary.history");
+            historyJournal = HistoryJournal.open(file, history, HistoryJournal.SyncMode.NONE);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try (Reader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             ImportReader reader = format.equals("csv") ? ImportReader.csv(in) : ImportReader.jsonl(in);
+             BufferedWriter out = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            ForkJoinTask<List<Outcome>> inFlight = null;
+            List<ImportReader.Record> chunk;
+            while (!(chunk = readChunk(reader)).isEmpty()) {
+                List<ImportReader.Record> records = chunk;
+                ForkJoinTask<List<Outcome>> next = pool.submit(
+                        () -> records.parallelStream().map(BulkImport::validate).toList());
+                if (inFlight != null) commit(inFlight.join(), history, out);
+                inFlight = next;
+            }
+            if (inFlight != null) commit(inFlight.join(), history, out);
+        } finally {
+            pool.shutdown();
+            if (historyJournal != null) historyJournal.close();
+        }
+
+        long elapsed = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.printf("Importados %d de %d registros (%d rejeitados) em %d ms: %.0f registros/s com %d threads%n",
+                accepted, read, rejected, elapsed, read * 1000.0 / elapsed, threads);
+        if (rejected > 0) System.out.println("Rejeitados gravados em " + rejects);
+    }
+
+    private List<ImportReader.Record> readChunk(ImportReader reader) throws IOException {
+        List<ImportReader.Record> chunk = new ArrayList<>(batch);
+        ImportReader.Record r;
+        while (chunk.size() < batch && (r = reader.next()) != null) chunk.add(r);
+        read += chunk.size();
+        return chunk;
+    }
+
+    /** Na thread principal, na ordem do arquivo. */
+    private void commit(List<Outcome> outcomes, MessageHistory history, Writer out) throws IOException {
+        List<Message> valid = new ArrayList<>(outcomes.size());
+        for (Outcome o : outcomes) {
+            if (o.message != null) {
+                valid.add(o.message);
+                continue;
+            }
+            rejected++;
+            out.write(Long.toString(o.record.line));
+            out.write(';');
+            out.write(o.reason);
+            out.write(';');
+            out.write(o.record.raw.replace("\r", "").replace("\n", "\\n"));
+            out.write('\n');
+        }
+        history.addMessages(valid);
+        accepted += valid.size();
+    }
+
+    /** Executado nas threads do pool. */
+    private static Outcome validate(ImportReader.Record r) {
+        String error = r.getError();
+        if (error != null) return new Outcome(r, null, error);
+        String name = r.getName();
+        String email = r.getEmail() == null ? null : r.getEmail().trim();
+        String body = r.getBody();
+        if (name == null || !Validation.notBlank(name)) return new Outcome(r, null, "nome vazio");
+        if (email == null || !Validation.isEmail(email)) return new Outcome(r, null, "e-mail inválido");
+        if (body == null || !Validation.notBlank(body)) return new Outcome(r, null, "mensagem vazia");
+
+        LocalDateTime createdAt = LocalDateTime.now();
+        String date = r.getCreatedAt();
+        if (date != null && !date.isBlank()) {
+            try {
+                createdAt = LocalDateTime.parse(date.trim());
+            } catch (DateTimeParseException e) {
+                return new Outcome(r, null, "data inválida");
+            }
+        }
+        return new Outcome(r, new Message(name.trim(), email, body.trim(), createdAt), null);
+    }
+
+    private static final class Outcome {
+        final ImportReader.Record record;
+        final Message message;
+        final String reason;
+
+        Outcome(ImportReader.Record record, Message message, String reason) {
+            this.record = record;
+            this.message = message;
+            this.reason = reason;
+        }
+    }
+}
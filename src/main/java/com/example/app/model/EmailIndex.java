@@ -0,0 +1,45 @@
+package com.example.app.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice secundário e-mail normalizado → sequências das mensagens daquele remetente.
+ * Como o histórico descarta sempre a mensagem mais antiga, ela também é a primeira
+ * da fila do seu remetente: a remoção é O(1).
+ */
+final class EmailIndex {
+    private static final LongQueue EMPTY = new LongQueue();
+
+    private final Map<String, LongQueue> bySender = new HashMap<>();
+
+    static String normalize(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
+
+    void add(Message m, long seq) {
+        String key = m.getNormalizedEmail();
+        if (key == null) return;
+        bySender.computeIfAbsent(key, k -> new LongQueue()).addLast(seq);
+    }
+
+    void evict(Message m, long seq) {
+        String key = m.getNormalizedEmail();
+        if (key == null) return;
+        LongQueue seqs = bySender.get(key);
+        if (seqs == null) return;
+        if (!seqs.isEmpty() && seqs.peekFirst() == seq) seqs.pollFirst();
+        if (seqs.isEmpty()) bySender.remove(key);
+    }
+
+    /** Sequências do remetente, da mais antiga para a mais recente; nunca {@code null}. */
+    LongQueue lookup(String email) {
+        LongQueue seqs = bySender.get(normalize(email));
+        return seqs == null ? EMPTY : seqs;
+    }
+
+    void clear() {
+        bySender.clear();
+    }
+}
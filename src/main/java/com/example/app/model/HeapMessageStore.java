@@ -0,0 +1,62 @@
+package com.example.app.model;
+
+import java.util.Arrays;
+
+/**
+ * Buffer circular de objetos {@link Message}: inserção e descarte são O(1).
+ * Cresce dobrando a capacidade, sem ultrapassar {@code maxSize}.
+ */
+final class HeapMessageStore implements MessageStore {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxSize;
+    private Message[] ring;
+    private int head;  // posição da mensagem mais antiga
+    private int size;
+
+    HeapMessageStore(int maxSize) {
+        this.maxSize = maxSize;
+        this.ring = new Message[Math.min(maxSize, INITIAL_CAPACITY)];
+    }
+
+    @Override
+    public void addLast(Message message) {
+        if (size == ring.length) grow();
+        ring[(head + size) % ring.length] = message;
+        size++;
+    }
+
+    @Override
+    public Message replaceFirst(Message message) {
+        Message evicted = ring[head];
+        ring[head] = message;
+        head = (head + 1) % ring.length;
+        return evicted;
+    }
+
+    private void grow() {
+        Message[] bigger = new Message[(int) Math.min(maxSize, (long) ring.length * 2)];
+        for (int i = 0; i < size; i++) {
+            bigger[i] = ring[(head + i) % ring.length];
+        }
+        ring = bigger;
+        head = 0;
+    }
+
+    @Override
+    public Message get(int index) {
+        return ring[(head + index) % ring.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(ring, null);
+        head = 0;
+        size = 0;
+    }
+}
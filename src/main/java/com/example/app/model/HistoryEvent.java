@@ -0,0 +1,26 @@
+package com.example.app.model;
+
+/** Evento de mudança do histórico: inclusão, descarte por limite ou limpeza. */
+public final class HistoryEvent {
+
+    public enum Type { ADDED, EVICTED, CLEARED }
+
+    private final Type type;
+    private final Message message;
+    private final long seq;
+    private final long version;
+
+    HistoryEvent(Type type, Message message, long seq, long version) {
+        this.type = type;
+        this.message = message;
+        this.seq = seq;
+        this.version = version;
+    }
+
+    public Type getType() { return type; }
+    /** Mensagem incluída ou descartada; {@code null} em CLEARED. */
+    public Message getMessage() { return message; }
+    /** Número de sequência da mensagem; em CLEARED, a próxima sequência. */
+    public long getSeq() { return seq; }
+    public long getVersion() { return version; }
+}
@@ -0,0 +1,11 @@
+package com.example.app.model;
+
+/**
+ * Recebe notificações de mudança do {@link MessageHistory}.
+ * É chamado de forma síncrona, ainda dentro do lock do histórico: implementações
+ * devem ser rápidas e repassar trabalho de UI para a EDT.
+ */
+@FunctionalInterface
+public interface HistoryListener {
+    void historyChanged(HistoryEvent event);
+}
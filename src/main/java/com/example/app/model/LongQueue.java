@@ -0,0 +1,74 @@
+package com.example.app.model;
+
+import java.util.Arrays;
+
+/** Fila FIFO de {@code long} sem boxing, em buffer circular que cresce sob demanda. */
+final class LongQueue {
+    private long[] items = new long[4];
+    private int head;
+    private int size;
+
+    void addLast(long value) {
+        if (size == items.length) {
+            long[] bigger = new long[items.length * 2];
+            for (int i = 0; i < size; i++) bigger[i] = items[(head + i) % items.length];
+            items = bigger;
+            head = 0;
+        }
+        items[(head + size) % items.length] = value;
+        size++;
+    }
+
+    long peekFirst() {
+        return items[head];
+    }
+
+    long pollFirst() {
+        long value = items[head];
+        head = (head + 1) % items.length;
+        size--;
+        return value;
+    }
+
+    long peekLast() {
+        return items[(head + size - 1) % items.length];
+    }
+
+    /** Elemento na posição {@code i}, contando a partir do mais antigo. */
+    long get(int i) {
+        return items[(head + i) % items.length];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Liga em {@code bits} o bit {@code valor - base} de cada elemento. */
+    void markBits(long[] bits, long base) {
+        int first = Math.min(size, items.length - head);
+        for (int i = head, end = head + first; i < end; i++) {
+            int offset = (int) (items[i] - base);
+            bits[offset >>> 6] |= 1L << offset;
+        }
+        for (int i = 0, end = size - first; i < end; i++) {
+            int offset = (int) (items[i] - base);
+            bits[offset >>> 6] |= 1L << offset;
+        }
+    }
+
+    long[] toArray() {
+        long[] out = new long[size];
+        for (int i = 0; i < size; i++) out[i] = get(i);
+        return out;
+    }
+
+    void clear() {
+        Arrays.fill(items, 0);
+        head = 0;
+        size = 0;
+    }
+}
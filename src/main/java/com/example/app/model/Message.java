@@ -1,22 +1,226 @@
 package com.example.app.model;
 
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
-/** Modelo de dados do envio. */
+/**
+ * Modelo de dados do envio, em forma compacta: remetente compartilhado (ver
+ * {@link Sender}), data como {@code long} e corpo em bytes (Latin-1 quando possível,
+ * senão UTF-8). Corpo e data são reconstruídos a cada chamada dos getters.
+ * Corpos a partir de {@value #COMPRESS_THRESHOLD} bytes são guardados comprimidos
+ * (Deflate), com a prévia exibida no histórico à parte: só {@link #getBody()} descomprime.
+ */
 public class Message {
-    private String name;
-    private String email;
-    private String body;
-    private LocalDateTime createdAt = LocalDateTime.now();
+    private static final byte LATIN1 = 0;
+    private static final byte UTF8 = 1;
+    private static final byte DEFLATED = 2; // [tamanho UTF-8 (4)][prévia (1 + n)][Deflate do UTF-8]
+
+    static final int COMPRESS_THRESHOLD = 4096;
+    private static final int PREVIEW_LENGTH = 50;
+    private static final int PREVIEW_CUT = PREVIEW_LENGTH - 3; // seguido de "..."
+
+    // Compressores reaproveitados por thread (criar um aloca memória nativa)
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    private static final long HASH_PRIME = 0x100000001b3L;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Sender sender;
+    private final long createdAtMillis;
+    private final byte[] body;
+    private final byte coder;
 
     public Message(String name, String email, String body) {
-        this.name = name;
-        this.email = email;
-        this.body = body;
+        this(name, email, body, LocalDateTime.now());
+    }
+
+    /** Usado ao restaurar mensagens persistidas. */
+    public Message(String name, String email, String body, LocalDateTime createdAt) {
+        this(name, email, body, createdAt.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    /** @param createdAtMillis data local em milissegundos, na convenção do {@link MessageCodec} */
+    public Message(String name, String email, String body, long createdAtMillis) {
+        this(Sender.of(name, email), createdAtMillis, body, true);
+    }
+
+    private Message(Sender sender, long createdAtMillis, String body, boolean mayCompress) {
+        this.sender = sender;
+        this.createdAtMillis = createdAtMillis;
+        byte[] compressed = mayCompress && body != null && body.length() >= COMPRESS_THRESHOLD / 3 ? compress(body) : null;
+        if (body == null) {
+            this.body = null;
+            this.coder = LATIN1;
+        } else if (compressed != null) {
+            this.body = compressed;
+            this.coder = DEFLATED;
+        } else if (isLatin1(body)) {
+            this.body = body.getBytes(StandardCharsets.ISO_8859_1);
+            this.coder = LATIN1;
+        } else {
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+            this.coder = UTF8;
+        }
+    }
+
+    /** Corpo já comprimido, como devolvido por {@link #deflatedBody()} (leitura do codec). */
+    private Message(Sender sender, long createdAtMillis, byte[] deflated) {
+        this.sender = sender;
+        this.createdAtMillis = createdAtMillis;
+        this.body = deflated;
+        this.coder = DEFLATED;
+    }
+
+    static Message ofDeflated(String name, String email, long createdAtMillis, byte[] deflated) {
+        if (deflated.length < 5 || deflated.length < 5 + (deflated[4] & 0xFF)) {
+            throw new IllegalArgumentException("Corpo comprimido inválido");
+        }
+        return new Message(Sender.of(name, email), createdAtMillis, deflated);
+    }
+
+    /**
+     * Corpo guardado sem compressão (leitura do codec): a decisão já foi tomada ao gravar,
+     * então não tenta comprimir de novo.
+     */
+    static Message ofPlain(String name, String email, long createdAtMillis, String body) {
+        return new Message(Sender.of(name, email), createdAtMillis, body, false);
+    }
+
+    /**
+     * UTF-8 comprimido com a prévia na frente, ou {@code null} se o corpo for menor que o
+     * limite ou não comprimir ao menos 25%.
+     */
+    private static byte[] compress(String body) {
+        byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < COMPRESS_THRESHOLD) return null;
+        byte[] preview = body.substring(0, previewCut(body)).getBytes(StandardCharsets.UTF_8);
+
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int limit = raw.length - raw.length / 4;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4);
+        out.write(raw.length >>> 24);
+        out.write(raw.length >>> 16);
+        out.write(raw.length >>> 8);
+        out.write(raw.length);
+        out.write(preview.length);
+        out.write(preview, 0, preview.length);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+            if (out.size() > limit) return null; // Não compensa
+        }
+        return out.toByteArray();
     }
 
-    public String getName() { return name; }
-    public String getEmail() { return email; }
-    public String getBody() { return body; }
-    public LocalDateTime getCreatedAt() { return createdAt; }
+    /** Fim da prévia: {@link #PREVIEW_CUT}, ou um antes para não separar um par de surrogates. */
+    private static int previewCut(String s) {
+        return Character.isHighSurrogate(s.charAt(PREVIEW_CUT - 1)) ? PREVIEW_CUT - 1 : PREVIEW_CUT;
+    }
+
+    private static String inflate(byte[] data) {
+        int length = (data[0] & 0xFF) << 24 | (data[1] & 0xFF) << 16 | (data[2] & 0xFF) << 8 | (data[3] & 0xFF);
+        int start = 5 + (data[4] & 0xFF);
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(data, start, data.length - start);
+        byte[] raw = new byte[length];
+        try {
+            int n = 0;
+            while (n < length && !inflater.finished()) {
+                int read = inflater.inflate(raw, n, length - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += read;
+            }
+            if (n != length) throw new IllegalStateException("Corpo comprimido truncado");
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corpo comprimido corrompido", e);
+        }
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) return false;
+        }
+        return true;
+    }
+
+    public String getName() { return sender.name; }
+    public String getEmail() { return sender.email; }
+
+    /** Corpo completo; descomprime corpos grandes a cada chamada. */
+    public String getBody() {
+        if (body == null) return null;
+        if (coder == DEFLATED) return inflate(body);
+        return new String(body, coder == LATIN1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Início do corpo para listagens: até 50 caracteres, ou os 47 primeiros seguidos de
+     * "..." se for maior. Nunca descomprime. {@code ""} se não houver corpo.
+     */
+    public String getPreview() {
+        if (body == null) return "";
+        if (coder == DEFLATED) {
+            return new String(body, 5, body[4] & 0xFF, StandardCharsets.UTF_8) + "...";
+        }
+        if (coder == LATIN1) {
+            return body.length > PREVIEW_LENGTH
+                    ? new String(body, 0, PREVIEW_CUT, StandardCharsets.ISO_8859_1) + "..."
+                    : new String(body, StandardCharsets.ISO_8859_1);
+        }
+        String s = getBody();
+        return s.length() > PREVIEW_LENGTH ? s.substring(0, previewCut(s)) + "..." : s;
+    }
+
+    /** Corpo comprimido (formato interno), ou {@code null} se não estiver comprimido. */
+    byte[] deflatedBody() {
+        return coder == DEFLATED ? body : null;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(createdAtMillis, 1000),
+                Math.floorMod(createdAtMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /** Data local em milissegundos, sem criar objetos. */
+    public long getCreatedAtMillis() { return createdAtMillis; }
+
+    /** E-mail já normalizado do remetente (compartilhado, sem alocar), usado como chave. */
+    public String getNormalizedEmail() { return sender.normalizedEmail; }
+
+    /**
+     * Hash de 64 bits de (e-mail normalizado, corpo), calculado sobre a forma guardada:
+     * corpos comprimidos não são descomprimidos. Textos iguais dão o mesmo hash.
+     */
+    public long contentHash() {
+        long h = 0xcbf29ce484222325L;
+        String email = sender.normalizedEmail;
+        if (email != null) {
+            for (int i = 0; i < email.length(); i++) h = (h ^ email.charAt(i)) * HASH_PRIME;
+        }
+        h = (h ^ 0x100 ^ coder) * HASH_PRIME; // separador fora da faixa de um byte
+        if (body != null) {
+            // 8 bytes por passo; o que sobra, um a um
+            int i = 0;
+            for (int end = body.length - 7; i < end; i += 8) {
+                h = (h ^ (long) LONGS.get(body, i)) * HASH_PRIME;
+                h ^= h >>> 29;
+            }
+            for (; i < body.length; i++) h = (h ^ (body[i] & 0xFF)) * HASH_PRIME;
+        }
+        return h ^ (h >>> 32);
+    }
 }
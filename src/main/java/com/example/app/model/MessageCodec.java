@@ -0,0 +1,76 @@
+package com.example.app.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serialização binária compacta de {@link Message}.
+ * Formato 2: versão (1 byte), data em epoch millis (8), nome e e-mail como UTF-8
+ * prefixado pelo tamanho (4 + n cada), tipo do corpo (1: 0 = UTF-8, 1 = comprimido) e
+ * o corpo prefixado pelo tamanho. Corpos comprimidos vão como estão, sem descomprimir.
+ * O formato 1 (corpo sempre em UTF-8, sem o byte de tipo) continua sendo lido.
+ */
+public final class MessageCodec {
+    private static final byte FORMAT_V1 = 1;
+    private static final byte FORMAT = 2;
+    private static final byte BODY_UTF8 = 0;
+    private static final byte BODY_DEFLATED = 1;
+
+    private MessageCodec(){}
+
+    public static byte[] encode(Message m) {
+        byte[] name = utf8(m.getName());
+        byte[] email = utf8(m.getEmail());
+        byte[] deflated = m.deflatedBody();
+        byte[] body = deflated != null ? deflated : utf8(m.getBody());
+        ByteBuffer buf = ByteBuffer.allocate(1 + 8 + 13 + name.length + email.length + body.length);
+        buf.put(FORMAT);
+        buf.putLong(m.getCreatedAtMillis());
+        buf.putInt(name.length).put(name);
+        buf.putInt(email.length).put(email);
+        buf.put(deflated != null ? BODY_DEFLATED : BODY_UTF8);
+        buf.putInt(body.length).put(body);
+        return buf.array();
+    }
+
+    /** Lê uma mensagem a partir da posição atual do buffer, avançando-a. */
+    public static Message decode(ByteBuffer in) {
+        byte format = in.get();
+        if (format != FORMAT && format != FORMAT_V1) {
+            throw new IllegalArgumentException("Formato de mensagem desconhecido: " + format);
+        }
+        long millis = in.getLong();
+        String name = readString(in);
+        String email = readString(in);
+        byte kind = format == FORMAT_V1 ? BODY_UTF8 : in.get();
+        if (kind == BODY_DEFLATED) {
+            int len = in.getInt();
+            if (len < 0 || len > in.remaining()) throw new IllegalArgumentException("Tamanho inválido: " + len);
+            byte[] deflated = new byte[len];
+            in.get(deflated);
+            return Message.ofDeflated(name, email, millis, deflated);
+        }
+        if (kind != BODY_UTF8) throw new IllegalArgumentException("Tipo de corpo desconhecido: " + kind);
+        String body = readString(in);
+        return Message.ofPlain(name, email, millis, body);
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int len = in.getInt();
+        if (len < 0 || len > in.remaining()) throw new IllegalArgumentException("Tamanho inválido: " + len);
+        String s;
+        if (in.hasArray()) {
+            s = new String(in.array(), in.arrayOffset() + in.position(), len, StandardCharsets.UTF_8);
+            in.position(in.position() + len);
+        } else {
+            byte[] bytes = new byte[len];
+            in.get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return s;
+    }
+}
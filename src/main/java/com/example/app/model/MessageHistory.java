@@ -1,53 +1,260 @@
 package com.example.app.model;
 
+import com.example.app.util.AppEvents;
+import com.example.app.util.Metrics;
+
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-/** Gerenciador do histórico de mensagens enviadas. */
+/**
+ * Gerenciador do histórico de mensagens enviadas.
+ * As mensagens ficam em um {@link MessageStore} circular (no heap ou fora dele, conforme
+ * o {@link Backend}): inserção e descarte são O(1). Cada mensagem recebe um número de
+ * sequência crescente; a mais antiga em memória tem sequência {@code nextSeq - size}.
+ */
 public class MessageHistory {
-    private final List<Message> messages = new ArrayList<>();
+
+    /** Onde as mensagens ficam guardadas. */
+    public enum Backend {
+        /** Objetos {@link Message} em um array circular. */
+        HEAP,
+        /** Registros serializados em memória direta; adequado a históricos com milhões de mensagens. */
+        OFF_HEAP
+    }
+
+    private static final Metrics.Timer ADD_TIME = Metrics.timer("history.add");
+    private static final Metrics.Timer EVICT_TIME = Metrics.timer("history.evict");
+    private static final Metrics.Timer QUERY_TIME = Metrics.timer("history.query");
+
+    private final MessageStore store;
     private final int maxSize;
 
-    public MessageHistory(int maxSize) {
+    private long nextSeq;   // sequência da próxima mensagem incluída
+    private long version;   // incrementa a cada alteração
+    private long epoch;     // incrementa a cada limpeza
+    private Snapshot snapshot;
+    private final EmailIndex emailIndex = new EmailIndex();
+    private final SearchIndex searchIndex;
+
+    private final List<HistoryListener> listeners = new CopyOnWriteArrayList<>();
+
+    public MessageHistory(int maxSize, Backend backend) {
         this.maxSize = Math.max(1, maxSize);
+        this.store = backend == Backend.OFF_HEAP
+                ? new OffHeapMessageStore(this.maxSize)
+                : new HeapMessageStore(this.maxSize);
+        this.searchIndex = new SearchIndex(backend != Backend.OFF_HEAP);
+    }
+
+    public MessageHistory(int maxSize) {
+        this(maxSize, Backend.HEAP);
     }
 
     public MessageHistory() {
         this(50); // Padrão: até 50 mensagens
     }
 
+    public void addListener(HistoryListener listener) {
+        if (listener != null) listeners.add(listener);
+    }
+
+    public void removeListener(HistoryListener listener) {
+        listeners.remove(listener);
+    }
+
     public synchronized void addMessage(Message message) {
         if (message == null) return;
 
-        messages.add(message);
-
-        // Remove mensagens antigas se exceder o limite
-        while (messages.size() > maxSize) {
-            messages.remove(0);
+        long start = Metrics.start();
+        AppEvents.History event = new AppEvents.History();
+        event.begin();
+        version++;
+        if (store.size() == maxSize) {
+            // Sobrescreve a mensagem mais antiga
+            long evictStart = Metrics.start();
+            AppEvents.History evictEvent = new AppEvents.History();
+            evictEvent.begin();
+            long evictedSeq = nextSeq - maxSize;
+            Message evicted = store.replaceFirst(message);
+            emailIndex.evict(evicted, evictedSeq);
+            searchIndex.evict(evicted, evictedSeq);
+            fire(HistoryEvent.Type.EVICTED, evicted, evictedSeq);
+            evictEvent.operation = "evict";
+            evictEvent.seq = evictedSeq;
+            evictEvent.count = maxSize;
+            evictEvent.commit();
+            EVICT_TIME.record(evictStart);
+        } else {
+            store.addLast(message);
         }
+        emailIndex.add(message, nextSeq);
+        searchIndex.add(message, nextSeq);
+        event.operation = "add";
+        event.seq = nextSeq;
+        event.count = store.size();
+        fire(HistoryEvent.Type.ADDED, message, nextSeq++);
+        event.commit();
+        ADD_TIME.record(start);
+    }
+
+    /** Inclui várias mensagens (em ordem) adquirindo o lock uma única vez. */
+    public synchronized void addMessages(Collection<Message> batch) {
+        for (Message m : batch) addMessage(m);
+    }
+
+    private void fire(HistoryEvent.Type type, Message message, long seq) {
+        if (listeners.isEmpty()) return;
+        HistoryEvent event = new HistoryEvent(type, message, seq, version);
+        for (HistoryListener l : listeners) l.historyChanged(event);
     }
 
     public synchronized List<Message> getAllMessages() {
-        return Collections.unmodifiableList(new ArrayList<>(messages));
+        int size = store.size();
+        List<Message> copy = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            copy.add(store.get(i));
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    /** Acesso indexado sem cópia; índice 0 é a mensagem mais recente. */
+    public synchronized Message getMessage(int index) {
+        int size = store.size();
+        if (index < 0 || index >= size) return null;
+        return store.get(size - 1 - index);
+    }
+
+    /** Mensagem pelo número de sequência, ou {@code null} se já foi descartada. */
+    public synchronized Message getBySeq(long seq) {
+        long first = nextSeq - store.size();
+        if (seq < first || seq >= nextSeq) return null;
+        return store.get((int) (seq - first));
     }
 
     public synchronized Message getLastMessage() {
-        return messages.isEmpty() ? null : messages.get(messages.size() - 1);
+        int size = store.size();
+        return size == 0 ? null : store.get(size - 1);
     }
 
     public synchronized int getMessageCount() {
-        return messages.size();
+        return store.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Visão somente leitura do estado atual, reaproveitada enquanto a versão não muda.
+     * Não copia as mensagens: leituras vão direto ao buffer.
+     */
+    public synchronized Snapshot snapshot() {
+        if (snapshot == null || snapshot.version != version) {
+            snapshot = new Snapshot(this, version, epoch, nextSeq - store.size(), nextSeq);
+        }
+        return snapshot;
     }
 
     public synchronized void clearHistory() {
-        messages.clear();
+        store.clear();
+        emailIndex.clear();
+        searchIndex.clear();
+        version++;
+        epoch++;
+        fire(HistoryEvent.Type.CLEARED, null, nextSeq);
     }
 
+    /** Mensagens do remetente (sem diferenciar maiúsculas), das mais antigas às mais recentes. */
     public synchronized List<Message> getMessagesByEmail(String email) {
         if (email == null) return Collections.emptyList();
-        return messages.stream()
-                .filter(m -> email.equalsIgnoreCase(m.getEmail()))
-                .collect(java.util.stream.Collectors.toList());
+        long start = Metrics.start();
+        AppEvents.History event = new AppEvents.History();
+        event.begin();
+        LongQueue seqs = emailIndex.lookup(email);
+        List<Message> result = new ArrayList<>(seqs.size());
+        for (int i = 0; i < seqs.size(); i++) {
+            result.add(getBySeq(seqs.get(i)));
+        }
+        queried(event, start, result.size());
+        return result;
+    }
+
+    /**
+     * Busca textual em nome e corpo: todos os termos precisam casar (E lógico),
+     * cada um como prefixo de alguma palavra, sem diferenciar maiúsculas nem acentos.
+     *
+     * @return sequências em ordem crescente, ou {@code null} se a consulta for vazia
+     */
+    public synchronized long[] searchSeqs(String query) {
+        long start = Metrics.start();
+        AppEvents.History event = new AppEvents.History();
+        event.begin();
+        long[] seqs = searchIndex.query(query);
+        queried(event, start, seqs == null ? store.size() : seqs.length);
+        return seqs;
+    }
+
+    /** Mensagens que casam com a consulta, das mais recentes às mais antigas. */
+    public synchronized List<Message> search(String query) {
+        long start = Metrics.start();
+        AppEvents.History event = new AppEvents.History();
+        event.begin();
+        long[] seqs = searchIndex.query(query);
+        List<Message> result;
+        if (seqs == null) {
+            result = getAllMessages();
+        } else {
+            result = new ArrayList<>(seqs.length);
+            for (int i = seqs.length - 1; i >= 0; i--) result.add(getBySeq(seqs[i]));
+        }
+        queried(event, start, result.size());
+        return result;
+    }
+
+    private static void queried(AppEvents.History event, long start, int results) {
+        event.operation = "query";
+        event.count = results;
+        event.commit();
+        QUERY_TIME.record(start);
+    }
+
+    /**
+     * Estado do histórico em uma versão: intervalo de sequências [firstSeq, endSeq).
+     * Linhas são indexadas da mais recente (0) para a mais antiga; uma linha descartada
+     * depois da captura retorna {@code null}.
+     */
+    public static final class Snapshot {
+        private final MessageHistory history;
+        private final long version;
+        private final long epoch;
+        private final long firstSeq;
+        private final long endSeq;
+
+        private Snapshot(MessageHistory history, long version, long epoch, long firstSeq, long endSeq) {
+            this.history = history;
+            this.version = version;
+            this.epoch = epoch;
+            this.firstSeq = firstSeq;
+            this.endSeq = endSeq;
+        }
+
+        public long getVersion() { return version; }
+        /** Contador de limpezas; muda quando o histórico é esvaziado. */
+        public long getEpoch() { return epoch; }
+        public long getFirstSeq() { return firstSeq; }
+        public long getEndSeq() { return endSeq; }
+        public int size() { return (int) (endSeq - firstSeq); }
+
+        public Message get(int row) {
+            if (row < 0 || row >= size()) return null;
+            return history.getBySeq(endSeq - 1 - row);
+        }
     }
 }
@@ -0,0 +1,22 @@
+package com.example.app.model;
+
+/**
+ * Armazenamento FIFO das mensagens do histórico, indexado a partir da mais antiga.
+ * O {@link MessageHistory} cuida de sequências, índices e eventos; a implementação só
+ * guarda as mensagens. Não é thread-safe: o acesso é feito sob o lock do histórico.
+ */
+interface MessageStore {
+
+    /** Inclui no fim; o chamador garante que {@code size() < maxSize}. */
+    void addLast(Message message);
+
+    /** Descarta a mais antiga, retornando-a, e inclui {@code message} no fim. */
+    Message replaceFirst(Message message);
+
+    /** Mensagem na posição {@code index}, sendo 0 a mais antiga. */
+    Message get(int index);
+
+    int size();
+
+    void clear();
+}
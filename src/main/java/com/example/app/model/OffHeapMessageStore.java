@@ -0,0 +1,136 @@
+package com.example.app.model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Histórico fora do heap: cada mensagem é gravada com {@link MessageCodec} em blocos de
+ * {@code ByteBuffer} diretos e o heap guarda apenas um índice de endereços (um
+ * {@code long[]} circular). O {@link Message} só é criado quando a posição é lida.
+ * <p>
+ * Como o descarte é sempre da mais antiga, os blocos funcionam como uma fila: um bloco
+ * é liberado (ou reaproveitado) quando todas as suas mensagens foram descartadas.
+ * Endereço = (id do bloco &lt;&lt; 32) | deslocamento.
+ */
+final class OffHeapMessageStore implements MessageStore {
+    static final int CHUNK_SIZE = 4 << 20;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxSize;
+    private long[] slots;
+    private int head;
+    private int size;
+
+    private final List<Chunk> chunks = new ArrayList<>(); // do mais antigo ao atual
+    private long firstChunkId;
+    private Chunk spare;
+
+    OffHeapMessageStore(int maxSize) {
+        this.maxSize = maxSize;
+        this.slots = new long[Math.min(maxSize, INITIAL_CAPACITY)];
+    }
+
+    @Override
+    public void addLast(Message message) {
+        if (size == slots.length) grow();
+        slots[(head + size) % slots.length] = append(message);
+        size++;
+    }
+
+    @Override
+    public Message replaceFirst(Message message) {
+        long address = slots[head];
+        Message evicted = read(address);
+        release(address);
+        slots[head] = append(message);
+        head = (head + 1) % slots.length;
+        return evicted;
+    }
+
+    @Override
+    public Message get(int index) {
+        return read(slots[(head + index) % slots.length]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        if (!chunks.isEmpty() && chunks.get(0).buf.capacity() == CHUNK_SIZE) spare = chunks.get(0);
+        firstChunkId += chunks.size();
+        chunks.clear();
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        long[] bigger = new long[(int) Math.min(maxSize, (long) slots.length * 2)];
+        for (int i = 0; i < size; i++) {
+            bigger[i] = slots[(head + i) % slots.length];
+        }
+        slots = bigger;
+        head = 0;
+    }
+
+    private long append(Message message) {
+        byte[] record = MessageCodec.encode(message);
+        Chunk tail = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (tail == null || tail.buf.remaining() < record.length) tail = newChunk(record.length);
+        int offset = tail.buf.position();
+        tail.buf.put(record);
+        tail.live++;
+        return ((firstChunkId + chunks.size() - 1) << 32) | offset;
+    }
+
+    private Chunk newChunk(int minSize) {
+        Chunk c;
+        if (spare != null && minSize <= CHUNK_SIZE) {
+            c = spare;
+            spare = null;
+            c.buf.clear();
+            c.live = 0;
+        } else {
+            c = new Chunk(Math.max(CHUNK_SIZE, minSize)); // Mensagem maior que um bloco ganha um só dela
+        }
+        chunks.add(c);
+        return c;
+    }
+
+    private void release(long address) {
+        chunk(address).live--;
+        while (!chunks.isEmpty() && chunks.get(0).live == 0) {
+            if (chunks.size() == 1) {
+                chunks.get(0).buf.clear(); // Bloco atual vazio: volta a escrever do início
+                return;
+            }
+            Chunk freed = chunks.remove(0);
+            firstChunkId++;
+            if (freed.buf.capacity() == CHUNK_SIZE) spare = freed;
+        }
+    }
+
+    private Message read(long address) {
+        Chunk c = chunk(address);
+        c.reader.limit(c.buf.capacity()).position((int) address);
+        return MessageCodec.decode(c.reader);
+    }
+
+    private Chunk chunk(long address) {
+        return chunks.get((int) ((address >>> 32) - firstChunkId));
+    }
+
+    private static final class Chunk {
+        final ByteBuffer buf;
+        final ByteBuffer reader; // Posição própria para leitura
+        int live;
+
+        Chunk(int capacity) {
+            this.buf = ByteBuffer.allocateDirect(capacity);
+            this.reader = buf.duplicate();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.app.model;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Índice invertido sobre nome e corpo das mensagens: termo → sequências (crescentes).
+ * Os termos de cada mensagem ficam guardados em um buffer circular paralelo ao do
+ * histórico, então o descarte não precisa reprocessar o texto. Consultas não leem
+ * nenhum corpo. Com {@code retainTerms = false} (histórico fora do heap) esse buffer
+ * não existe e o descarte volta a extrair os termos da mensagem descartada.
+ */
+final class SearchIndex {
+    private static final long[] NONE = new long[0];
+
+    private final TreeMap<String, LongQueue> postings = new TreeMap<>();
+    private final boolean retainTerms;
+    private String[][] terms = new String[16][];
+    private int head;
+    private int size;
+    private long firstSeq;
+
+    SearchIndex(boolean retainTerms) {
+        this.retainTerms = retainTerms;
+    }
+
+    void add(Message m, long seq) {
+        if (size == 0) firstSeq = seq;
+        String[] unique = tokenize(m.getName(), m.getBody());
+        for (int i = 0; i < unique.length; i++) {
+            Map.Entry<String, LongQueue> entry = postings.ceilingEntry(unique[i]);
+            LongQueue seqs;
+            if (entry != null && entry.getKey().equals(unique[i])) {
+                unique[i] = entry.getKey(); // Reaproveita a String já indexada
+                seqs = entry.getValue();
+            } else {
+                seqs = new LongQueue();
+                postings.put(unique[i], seqs);
+            }
+            seqs.addLast(seq);
+        }
+        if (!retainTerms) {
+            size++;
+            return;
+        }
+        if (size == terms.length) {
+            String[][] bigger = new String[terms.length * 2][];
+            for (int i = 0; i < size; i++) bigger[i] = terms[(head + i) % terms.length];
+            terms = bigger;
+            head = 0;
+        }
+        terms[(head + size) % terms.length] = unique;
+        size++;
+    }
+
+    /** Remove a mensagem mais antiga; {@code seq} deve ser a primeira indexada. */
+    void evict(Message m, long seq) {
+        if (size == 0 || seq != firstSeq) return;
+        String[] evicted;
+        if (retainTerms) {
+            evicted = terms[head];
+            terms[head] = null;
+            head = (head + 1) % terms.length;
+        } else {
+            evicted = tokenize(m.getName(), m.getBody());
+        }
+        size--;
+        firstSeq++;
+        for (String term : evicted) {
+            LongQueue seqs = postings.get(term);
+            if (seqs == null) continue;
+            if (!seqs.isEmpty() && seqs.peekFirst() == seq) seqs.pollFirst();
+            if (seqs.isEmpty()) postings.remove(term);
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        Arrays.fill(terms, null);
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Sequências (crescentes) das mensagens que têm, para cada termo da consulta,
+     * alguma palavra começando por ele. Consulta vazia retorna {@code null}.
+     * Cada termo vira um bitmap sobre a janela de sequências em memória; a combinação
+     * dos termos é um AND palavra a palavra.
+     */
+    long[] query(String query) {
+        String[] queryTerms = tokenize(query, null);
+        if (queryTerms.length == 0) return null;
+        if (size == 0) return NONE;
+
+        long[] result = null;
+        long[] bits = new long[(size + 63) >>> 6];
+        for (String term : queryTerms) {
+            NavigableMap<String, LongQueue> range = postings.subMap(term, true, term + Character.MAX_VALUE, false);
+            if (range.isEmpty()) return NONE;
+            if (result != null) Arrays.fill(bits, 0);
+            long[] target = result == null ? (result = new long[bits.length]) : bits;
+            for (LongQueue seqs : range.values()) seqs.markBits(target, firstSeq);
+            if (target == bits) {
+                for (int w = 0; w < result.length; w++) result[w] &= bits[w];
+            }
+        }
+
+        int count = 0;
+        for (long word : result) count += Long.bitCount(word);
+        long[] seqs = new long[count];
+        int n = 0;
+        for (int w = 0; w < result.length; w++) {
+            long word = result[w];
+            while (word != 0) {
+                seqs[n++] = firstSeq + ((long) w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return seqs;
+    }
+
+    /** Palavras distintas, em minúsculas e sem acentos. */
+    static String[] tokenize(String first, String second) {
+        Set<String> out = new LinkedHashSet<>();
+        tokenizeInto(first, out);
+        tokenizeInto(second, out);
+        return out.toArray(new String[0]);
+    }
+
+    private static void tokenizeInto(String text, Set<String> out) {
+        if (text == null || text.isEmpty()) return;
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && word.length() > 0) {
+                out.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) out.add(word.toString());
+    }
+}
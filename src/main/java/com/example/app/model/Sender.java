@@ -0,0 +1,41 @@
+package com.example.app.model;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Remetente (nome + e-mail) compartilhado entre as mensagens.
+ * O pool é indexado pelo e-mail normalizado e guarda referências fracas: um remetente
+ * some do pool quando nenhuma mensagem o usa mais. Para cada e-mail fica no pool só a
+ * grafia mais recente de nome e e-mail.
+ */
+final class Sender {
+    private static final Map<String, WeakReference<Sender>> POOL = new WeakHashMap<>();
+
+    final String name;
+    final String email;
+    final String normalizedEmail;
+
+    private Sender(String name, String email, String normalizedEmail) {
+        this.name = name;
+        this.email = email;
+        this.normalizedEmail = normalizedEmail;
+    }
+
+    static Sender of(String name, String email) {
+        String key = EmailIndex.normalize(email);
+        if (key == null) return new Sender(name, null, null);
+        synchronized (POOL) {
+            WeakReference<Sender> ref = POOL.get(key);
+            Sender cached = ref == null ? null : ref.get();
+            if (cached != null && Objects.equals(cached.name, name) && cached.email.equals(email)) return cached;
+            if (cached == null) POOL.remove(key);
+            // A chave do mapa é a própria String do remetente: a entrada vive enquanto ele viver
+            Sender sender = new Sender(name, email, cached != null ? cached.normalizedEmail : key);
+            POOL.put(sender.normalizedEmail, new WeakReference<>(sender));
+            return sender;
+        }
+    }
+}
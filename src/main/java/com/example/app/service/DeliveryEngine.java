@@ -0,0 +1,190 @@
+package com.example.app.service;
+
+import com.example.app.model.Message;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Entrega das mensagens aceitas por SMTP.
+ * <p>
+ * Um worker retira da {@link RetryQueue} até {@code batchSize} mensagens vencidas e as
+ * envia pela mesma conexão, que fica aberta até ficar ociosa. Falhas temporárias (4xx
+ * ou de rede) voltam para a fila com espera exponencial; rejeições definitivas (5xx)
+ * ou excesso de tentativas descartam a mensagem. A fila é salva em disco, então o que
+ * não foi entregue sobrevive a um reinício.
+ */
+public final class DeliveryEngine implements Closeable {
+
+    private final SmtpSettings settings;
+    private final RetryQueue queue;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Object persistLock = new Object(); // uma gravação da caixa de saída por vez, na ordem dos retratos
+    private final Condition changed = lock.newCondition();
+    private final Thread worker;
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private SmtpSession session;
+    private long lastUsed;
+    private volatile boolean closed;
+
+    public DeliveryEngine(SmtpSettings settings, Path outbox) {
+        this.settings = settings;
+        this.queue = new RetryQueue(outbox);
+        this.worker = new Thread(this::run, "smtp-delivery");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /** Registra a mensagem na caixa de saída; a entrega é assíncrona. */
+    public void enqueue(Message message) {
+        lock.lock();
+        try {
+            queue.add(message, System.currentTimeMillis());
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDelivered() { return delivered.get(); }
+    public long getRejected() { return rejected.get(); }
+    public long getRetried() { return retried.get(); }
+
+    public int getPending() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            persist();
+            if (session != null && lastUsed + settings.getIdleTimeoutMillis() <= System.currentTimeMillis()) {
+                closeSession(); // QUIT fora do lock: enqueue() não espera a rede
+            }
+            List<RetryQueue.Entry> batch;
+            lock.lock();
+            try {
+                long now = System.currentTimeMillis();
+                batch = queue.pollDue(now, settings.getBatchSize());
+                if (batch.isEmpty()) {
+                    if (closed) break; // close() pode ter sinalizado antes deste lock
+                    long wait = queue.nextDueAt() - now;
+                    if (session != null) wait = Math.min(wait, lastUsed + settings.getIdleTimeoutMillis() - now);
+                    if (wait > 0) changed.await(Math.min(wait, TimeUnit.MINUTES.toMillis(1)), TimeUnit.MILLISECONDS);
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                lock.unlock();
+            }
+            deliver(batch);
+        }
+        closeSession();
+    }
+
+    /** Retrato da fila sob o lock; a gravação em disco fica fora dele. */
+    private void persist() {
+        synchronized (persistLock) {
+            byte[] snapshot;
+            lock.lock();
+            try {
+                snapshot = queue.snapshotIfDirty();
+            } finally {
+                lock.unlock();
+            }
+            if (snapshot == null || queue.write(snapshot)) return;
+            lock.lock();
+            try {
+                queue.markDirty();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Envia o lote pela sessão atual (abrindo uma se preciso); roda fora do lock. */
+    private void deliver(List<RetryQueue.Entry> batch) {
+        int i = 0;
+        try {
+            if (session == null) session = SmtpSession.open(settings);
+            for (; i < batch.size(); i++) {
+                RetryQueue.Entry e = batch.get(i);
+                byte[] data = SmtpSession.format(settings.getFrom(), settings.getTo(), e.message,
+                        session.isEightBitMime());
+                SmtpSession.Result result = session.send(settings.getFrom(), settings.getTo(), data);
+                lastUsed = System.currentTimeMillis();
+                finish(e, result);
+            }
+        } catch (IOException ex) {
+            System.err.println("Erro na entrega SMTP: " + ex.getMessage());
+            closeSession();
+            for (; i < batch.size(); i++) finish(batch.get(i), SmtpSession.Result.RETRY);
+        }
+    }
+
+    private void finish(RetryQueue.Entry e, SmtpSession.Result result) {
+        lock.lock();
+        try {
+            e.attempts++; // Conta também a tentativa recusada em definitivo
+            if (result == SmtpSession.Result.SENT) {
+                queue.complete(e);
+                delivered.incrementAndGet();
+            } else if (result == SmtpSession.Result.RETRY && e.attempts < settings.getMaxAttempts()) {
+                queue.reschedule(e, System.currentTimeMillis() + backoff(e.attempts));
+                retried.incrementAndGet();
+            } else {
+                queue.complete(e);
+                rejected.incrementAndGet();
+                System.err.println("Mensagem descartada após " + e.attempts + " tentativa(s): " + e.message.getEmail());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Espera exponencial (base · 2^(n-1), limitada) com até 10% de variação aleatória. */
+    private long backoff(int attempts) {
+        long delay = settings.getRetryBaseMillis() << Math.min(attempts - 1, 30);
+        delay = Math.min(delay, settings.getRetryMaxMillis());
+        return delay + ThreadLocalRandom.current().nextLong(delay / 10 + 1);
+    }
+
+    private void closeSession() {
+        if (session != null) {
+            session.close();
+            session = null;
+        }
+    }
+
+    /** Encerra o worker (terminando o lote atual) e grava a caixa de saída. */
+    @Override
+    public void close() {
+        closed = true;
+        lock.lock();
+        try {
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        persist();
+    }
+}
@@ -0,0 +1,450 @@
+package com.example.app.service;
+
+import com.example.app.model.HistoryEvent;
+import com.example.app.model.HistoryListener;
+import com.example.app.model.Message;
+import com.example.app.model.MessageCodec;
+import com.example.app.model.MessageHistory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Journal append-only do histórico em disco.
+ * <p>
+ * Cada registro é {@code [tamanho][crc32][tipo + dados][tamanho]}; o tamanho repetido
+ * no fim permite ler o arquivo de trás para frente, de modo que a recuperação percorre
+ * apenas as últimas {@code maxSize} mensagens. Quando o arquivo passa do dobro disso,
+ * uma compactação em segundo plano reescreve só a cauda.
+ * <p>
+ * O evento do histórico apenas codifica o registro e o põe numa fila; a gravação e o
+ * fsync ficam na thread do journal, fora do lock do {@link MessageHistory}.
+ */
+public final class HistoryJournal implements HistoryListener, Closeable {
+
+    /** Política de fsync: a cada registro, agrupada periodicamente ou a cargo do SO. */
+    public enum SyncMode { ALWAYS, GROUP, NONE }
+
+    private static final int MAGIC = 0x53464A31; // "SFJ1"
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_OVERHEAD = 12;
+    private static final byte TYPE_MESSAGE = 1;
+    private static final byte TYPE_CLEAR = 2;
+    private static final long GROUP_COMMIT_MILLIS = 200;
+    private static final int COMPACT_SLACK = 64;
+
+    private final Path file;
+    private final MessageHistory history;
+    private final int keep;
+    private final SyncMode syncMode;
+    private final FileChannel lockChannel;
+    private final FileLock fileLock;
+    private final ScheduledExecutorService executor;
+
+    private final Queue<Pending> pending = new ConcurrentLinkedQueue<>(); // registros a gravar
+    private final Object ioLock = new Object();
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer writeBuf = ByteBuffer.allocate(4096);
+    private FileChannel channel;
+    private long position;
+    private long records;
+    private boolean dirty;
+    private boolean compacting;
+    private long compactAfter; // registros a partir dos quais compactar; sobe após uma falha
+    private boolean closed;
+
+    private HistoryJournal(Path file, MessageHistory history, SyncMode syncMode,
+                           FileChannel lockChannel, FileLock fileLock) {
+        this.file = file;
+        this.history = history;
+        this.keep = history.getMaxSize();
+        this.compactAfter = 2L * keep + COMPACT_SLACK;
+        this.syncMode = syncMode == null ? SyncMode.GROUP : syncMode;
+        this.lockChannel = lockChannel;
+        this.fileLock = fileLock;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "history-journal");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Abre (ou cria) o journal, restaura a cauda no histórico e passa a gravar
+     * as alterações seguintes.
+     *
+     * @throws IOException se o arquivo estiver inválido ou em uso por outra instância
+     */
+    public static HistoryJournal open(Path file, MessageHistory history, SyncMode syncMode) throws IOException {
+        Path lockPath = file.resolveSibling(file.getFileName() + ".lock");
+        FileChannel lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Histórico em uso por outra instância: " + file);
+        }
+
+        HistoryJournal journal = new HistoryJournal(file, history, syncMode, lockChannel, lock);
+        try {
+            journal.recover();
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        history.addListener(journal);
+        if (journal.syncMode == SyncMode.GROUP) {
+            journal.executor.scheduleWithFixedDelay(journal::syncIfDirty,
+                    GROUP_COMMIT_MILLIS, GROUP_COMMIT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(1).flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            channel.force(true);
+            position = HEADER_SIZE;
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC) throw new IOException("Arquivo de histórico inválido: " + file);
+
+        long end = lastValidEnd(size);
+        if (end < size) {
+            // Escrita interrompida no fim: descarta o registro incompleto
+            channel.truncate(end);
+            channel.force(true);
+        }
+        position = end;
+
+        Tail tail = scanTail(channel, end);
+        records = tail.count + (tail.reachedStart ? 0 : keep);
+        for (int i = tail.count - 1; i >= 0; i--) {
+            history.addMessage(tail.decode(i));
+        }
+    }
+
+    // Registro
+
+    @Override
+    public void historyChanged(HistoryEvent event) {
+        // Dentro do lock do histórico só codifica; a gravação (e o fsync) fica na thread do journal
+        switch (event.getType()) {
+            case ADDED -> enqueue(TYPE_MESSAGE, MessageCodec.encode(event.getMessage()));
+            case CLEARED -> enqueue(TYPE_CLEAR, new byte[0]);
+            default -> { } // Descartes são resolvidos pela compactação
+        }
+    }
+
+    private void enqueue(byte type, byte[] payload) {
+        pending.add(new Pending(type, payload));
+        try {
+            executor.execute(this::writePending);
+        } catch (RejectedExecutionException e) {
+            // Fechando: close() grava o que ficou na fila
+        }
+    }
+
+    /** Grava tudo o que está na fila, na ordem dos eventos, com um único fsync no modo ALWAYS. */
+    private void writePending() {
+        synchronized (ioLock) {
+            if (closed) return;
+            boolean wrote = false;
+            for (Pending p; (p = pending.poll()) != null; ) {
+                if (append(p.type, p.payload)) wrote = true;
+            }
+            if (!wrote) return;
+            if (syncMode == SyncMode.ALWAYS) {
+                try {
+                    channel.force(false);
+                } catch (IOException e) {
+                    System.err.println("Erro ao sincronizar histórico: " + file);
+                }
+            } else {
+                dirty = true;
+            }
+            if (!compacting && records > compactAfter && !executor.isShutdown()) {
+                compacting = true;
+                executor.execute(this::compactQuietly);
+            }
+        }
+    }
+
+    /** Com {@link #ioLock}: grava um registro no fim do arquivo. */
+    private boolean append(byte type, byte[] payload) {
+        int len = 1 + payload.length;
+        if (writeBuf.capacity() < len + RECORD_OVERHEAD) {
+            writeBuf = ByteBuffer.allocate(Math.max(len + RECORD_OVERHEAD, writeBuf.capacity() * 2));
+        }
+        writeBuf.clear();
+        writeBuf.putInt(len).putInt(0).put(type).put(payload).putInt(len);
+        crc.reset();
+        crc.update(writeBuf.array(), 8, len);
+        writeBuf.putInt(4, (int) crc.getValue());
+        writeBuf.flip();
+        try {
+            while (writeBuf.hasRemaining()) {
+                position += channel.write(writeBuf, position);
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar histórico: " + file);
+            return false;
+        }
+        records++;
+        return true;
+    }
+
+    private void syncIfDirty() {
+        synchronized (ioLock) {
+            if (!dirty || closed) return;
+            try {
+                channel.force(false);
+                dirty = false;
+            } catch (IOException e) {
+                System.err.println("Erro ao sincronizar histórico: " + file);
+            }
+        }
+    }
+
+    /** Grava o que ainda está na fila e força a gravação em disco. */
+    public void flush() {
+        writePending();
+        syncIfDirty();
+    }
+
+    // Compactação
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            System.err.println("Erro ao compactar histórico: " + file);
+            synchronized (ioLock) {
+                compacting = false;
+                // Não tenta de novo a cada envio: só depois de mais uma leva de registros
+                compactAfter = records + keep + COMPACT_SLACK;
+            }
+        }
+    }
+
+    /**
+     * Copia para um arquivo novo apenas a cauda viva (sem decodificar), inclui o que
+     * foi gravado durante a cópia e troca os arquivos com um rename atômico.
+     */
+    private void compact() throws IOException {
+        FileChannel source;
+        long end;
+        long recordsAtStart;
+        synchronized (ioLock) {
+            if (closed) return;
+            source = channel;
+            end = position;
+            recordsAtStart = records;
+        }
+
+        Tail tail = scanTail(source, end);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            out.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(1).flip(), 0);
+            transfer(source, tail.start, end, out, HEADER_SIZE);
+
+            synchronized (ioLock) {
+                if (closed) {
+                    out.close();
+                    Files.deleteIfExists(tmp);
+                    return;
+                }
+                long liveEnd = position;
+                long copied = transfer(source, end, liveEnd, out, HEADER_SIZE + (end - tail.start));
+                out.force(true);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel.close();
+                channel = out;
+                position = HEADER_SIZE + (end - tail.start) + copied;
+                records = tail.count + (records - recordsAtStart);
+                compactAfter = 2L * keep + COMPACT_SLACK;
+                dirty = false;
+                compacting = false;
+            }
+        } catch (IOException e) {
+            out.close();
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    private static long transfer(FileChannel from, long start, long end, FileChannel to, long toPos) throws IOException {
+        long done = 0;
+        while (start + done < end) {
+            done += from.transferTo(start + done, end - start - done, to.position(toPos + done));
+        }
+        return done;
+    }
+
+    // Leitura de trás para frente
+
+    /**
+     * Fim do último registro íntegro. Sobre uma cauda corrompida recua byte a byte só
+     * pelas verificações baratas (tamanho nas duas pontas e tipo); o CRC roda apenas num
+     * registro plausível e, se falhar, a busca continua antes do início dele, de modo que
+     * cada byte é conferido por no máximo um CRC.
+     */
+    private long lastValidEnd(long size) throws IOException {
+        long base = Math.max(HEADER_SIZE, size - Integer.MAX_VALUE);
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, base, size - base);
+        CRC32 check = new CRC32();
+        int end = (int) (size - base);
+        while (end > 0) {
+            int start = plausibleStart(map, end);
+            if (start < 0) {
+                end--;
+            } else if (crcMatches(map, start, check)) {
+                return base + end;
+            } else {
+                end = start;
+            }
+        }
+        return base;
+    }
+
+    /** Início relativo do registro que termina em {@code end}, ou -1 se não for íntegro. */
+    private static int recordStart(ByteBuffer map, int end) {
+        int start = plausibleStart(map, end);
+        return start >= 0 && crcMatches(map, start, new CRC32()) ? start : -1;
+    }
+
+    /** Início do registro que terminaria em {@code end}, se o enquadramento bater; senão -1. */
+    private static int plausibleStart(ByteBuffer map, int end) {
+        if (end < RECORD_OVERHEAD + 1) return -1;
+        int len = map.getInt(end - 4);
+        if (len < 1 || len > end - RECORD_OVERHEAD) return -1;
+        int start = end - RECORD_OVERHEAD - len;
+        if (map.getInt(start) != len) return -1;
+        byte type = map.get(start + 8);
+        return type == TYPE_MESSAGE || type == TYPE_CLEAR ? start : -1;
+    }
+
+    private static boolean crcMatches(ByteBuffer map, int start, CRC32 check) {
+        check.reset();
+        check.update(map.slice(start + 8, map.getInt(start)));
+        return (int) check.getValue() == map.getInt(start + 4);
+    }
+
+    /** Percorre do fim para o início até juntar {@code keep} mensagens ou achar uma limpeza. */
+    private Tail scanTail(FileChannel source, long end) throws IOException {
+        long base = Math.max(HEADER_SIZE, end - Integer.MAX_VALUE);
+        MappedByteBuffer map = source.map(FileChannel.MapMode.READ_ONLY, base, end - base);
+        List<Integer> starts = new ArrayList<>();
+        int pos = (int) (end - base);
+        boolean reachedStart = false;
+        while (starts.size() < keep) {
+            if (pos == 0) {
+                reachedStart = base == HEADER_SIZE;
+                break;
+            }
+            int start = recordStart(map, pos);
+            if (start < 0) break; // Registro corrompido no meio: mantém o que é posterior
+            if (map.get(start + 8) == TYPE_CLEAR) {
+                reachedStart = true;
+                break;
+            }
+            starts.add(start);
+            pos = start;
+        }
+        return new Tail(map, starts, base + pos, reachedStart);
+    }
+
+    /** Registros da cauda, do mais recente para o mais antigo. */
+    private static final class Tail {
+        final ByteBuffer map;
+        final List<Integer> starts;
+        final int count;
+        final long start;
+        final boolean reachedStart;
+
+        Tail(ByteBuffer map, List<Integer> starts, long start, boolean reachedStart) {
+            this.map = map;
+            this.starts = starts;
+            this.count = starts.size();
+            this.start = start;
+            this.reachedStart = reachedStart;
+        }
+
+        Message decode(int i) {
+            int start = starts.get(i);
+            int len = map.getInt(start);
+            return MessageCodec.decode(map.slice(start + 9, len - 1));
+        }
+    }
+
+    @Override
+    public void close() {
+        history.removeListener(this);
+        executor.shutdown();
+        try {
+            // Espera a fila e uma compactação em andamento; o que restar é gravado aqui
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writePending();
+        synchronized (ioLock) {
+            if (closed) return;
+            closed = true;
+            try {
+                if (channel != null) {
+                    channel.force(true);
+                    channel.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar histórico: " + file);
+            }
+        }
+        try {
+            fileLock.release();
+            lockChannel.close();
+        } catch (IOException ignored) { }
+    }
+
+    /** Registro codificado à espera da thread do journal. */
+    private static final class Pending {
+        final byte type;
+        final byte[] payload;
+
+        Pending(byte type, byte[] payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.app.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Leitura em fluxo de envios exportados, um registro por vez, em CSV (com cabeçalho,
+ * aspas e quebras de linha dentro de campos) ou JSONL (um objeto por linha).
+ * Colunas reconhecidas: name/nome, email/e-mail, body/mensagem/message e
+ * createdAt/data (opcional, ISO-8601).
+ */
+public abstract class ImportReader implements Closeable {
+
+    /**
+     * Registro bruto. Em JSONL o objeto só é interpretado no primeiro acesso aos campos,
+     * para que isso aconteça na thread que valida e não na que lê o arquivo.
+     */
+    public static final class Record {
+        public final long line;
+        public final String raw;
+        private Map<String, String> fields;
+        private String error;
+
+        Record(long line, String raw, Map<String, String> fields, String error) {
+            this.line = line;
+            this.raw = raw;
+            this.fields = fields;
+            this.error = error;
+        }
+
+        /** Motivo pelo qual o registro não pôde ser interpretado, ou {@code null}. */
+        public String getError() {
+            fields();
+            return error;
+        }
+
+        public String getName() {
+            return field("name", "nome");
+        }
+
+        public String getEmail() {
+            return field("email", "e-mail");
+        }
+
+        public String getBody() {
+            return field("body", "mensagem", "message");
+        }
+
+        public String getCreatedAt() {
+            return field("createdat", "data");
+        }
+
+        private String field(String... keys) {
+            Map<String, String> values = fields();
+            for (String k : keys) {
+                String v = values.get(k);
+                if (v != null) return v;
+            }
+            return null;
+        }
+
+        private Map<String, String> fields() {
+            if (fields == null) {
+                fields = new HashMap<>();
+                try {
+                    JsonLines.parseObject(raw, fields);
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+            }
+            return fields;
+        }
+    }
+
+    protected final BufferedReader in;
+    protected long line;
+
+    protected ImportReader(Reader in) {
+        this.in = in instanceof BufferedReader b ? b : new BufferedReader(in, 1 << 16);
+    }
+
+    public static ImportReader csv(Reader in) {
+        return new Csv(in);
+    }
+
+    public static ImportReader jsonl(Reader in) {
+        return new JsonLines(in);
+    }
+
+    /** Próximo registro, ou {@code null} no fim do arquivo. */
+    public abstract Record next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** CSV no estilo RFC 4180, com a primeira linha como cabeçalho. */
+    private static final class Csv extends ImportReader {
+        private List<String> header;
+        private final StringBuilder raw = new StringBuilder();
+        private final StringBuilder cell = new StringBuilder();
+        private final char[] buf = new char[1 << 14]; // Evita o read() sincronizado por caractere
+        private int pos;
+        private int limit;
+
+        Csv(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public Record next() throws IOException {
+            if (header == null) {
+                List<String> names = readRow();
+                if (names == null) return null;
+                header = new ArrayList<>(names.size());
+                for (String n : names) header.add(key(n));
+            }
+            long start = line + 1;
+            List<String> row = readRow();
+            while (row != null && row.size() == 1 && row.get(0).isEmpty()) {
+                start = line + 1;
+                row = readRow(); // Linha em branco
+            }
+            if (row == null) return null;
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < Math.min(row.size(), header.size()); i++) fields.put(header.get(i), row.get(i));
+            String error = row.size() != header.size()
+                    ? "esperadas " + header.size() + " colunas, encontradas " + row.size() : null;
+            return new Record(start, raw.toString(), fields, error);
+        }
+
+        private List<String> readRow() throws IOException {
+            raw.setLength(0);
+            cell.setLength(0);
+            List<String> cells = new ArrayList<>();
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = read()) != -1) {
+                any = true;
+                char ch = (char) c;
+                if (quoted) {
+                    if (ch == '"') {
+                        if (peek() == '"') {
+                            pos++;
+                            cell.append('"');
+                            raw.append("\"\"");
+                            continue;
+                        }
+                        quoted = false;
+                        raw.append('"');
+                        continue;
+                    }
+                    if (ch == '\n') line++;
+                    cell.append(ch);
+                    raw.append(ch);
+                    continue;
+                }
+                if (ch == '\r') continue;
+                if (ch == '\n') {
+                    line++;
+                    cells.add(cell.toString());
+                    return cells;
+                }
+                raw.append(ch);
+                if (ch == '"' && cell.length() == 0) {
+                    quoted = true;
+                } else if (ch == ',') {
+                    cells.add(cell.toString());
+                    cell.setLength(0);
+                } else {
+                    cell.append(ch);
+                }
+            }
+            if (!any) return null;
+            line++;
+            cells.add(cell.toString());
+            return cells;
+        }
+
+        private int read() throws IOException {
+            return peek() == -1 ? -1 : buf[pos++];
+        }
+
+        private int peek() throws IOException {
+            if (pos == limit) {
+                int n = in.read(buf, 0, buf.length);
+                if (n <= 0) return -1;
+                pos = 0;
+                limit = n;
+            }
+            return buf[pos];
+        }
+    }
+
+    /** Um objeto JSON plano por linha; valores não textuais são lidos como texto. */
+    private static final class JsonLines extends ImportReader {
+        JsonLines(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public Record next() throws IOException {
+            String text;
+            do {
+                text = in.readLine();
+                if (text == null) return null;
+                line++;
+            } while (text.isBlank());
+            return new Record(line, text, null, null);
+        }
+
+        static void parseObject(String s, Map<String, String> out) {
+            int[] pos = {skip(s, 0)};
+            expect(s, pos, '{');
+            if (peek(s, pos) == '}') return;
+            while (true) {
+                String name = parseString(s, pos);
+                expect(s, pos, ':');
+                out.put(key(name), parseValue(s, pos));
+                char c = next(s, pos);
+                if (c == '}') break;
+                if (c != ',') throw new IllegalArgumentException("esperado ',' ou '}' na coluna " + pos[0]);
+            }
+            if (skip(s, pos[0]) != s.length()) throw new IllegalArgumentException("conteúdo após o objeto");
+        }
+
+        private static String parseValue(String s, int[] pos) {
+            char c = peek(s, pos);
+            if (c == '"') return parseString(s, pos);
+            int start = pos[0];
+            while (pos[0] < s.length() && ",}".indexOf(s.charAt(pos[0])) < 0) pos[0]++;
+            String literal = s.substring(start, pos[0]).trim();
+            if (literal.isEmpty() || literal.startsWith("{") || literal.startsWith("[")) {
+                throw new IllegalArgumentException("valor não suportado na coluna " + start);
+            }
+            return "null".equals(literal) ? null : literal;
+        }
+
+        private static String parseString(String s, int[] pos) {
+            expect(s, pos, '"');
+            StringBuilder sb = new StringBuilder();
+            while (pos[0] < s.length()) {
+                char c = s.charAt(pos[0]++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos[0] >= s.length()) break;
+                char e = s.charAt(pos[0]++);
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case 'r' -> sb.append('\r');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos[0] + 4 > s.length()) throw new IllegalArgumentException("escape \\u incompleto");
+                        try {
+                            sb.append((char) Integer.parseInt(s.substring(pos[0], pos[0] + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw new IllegalArgumentException("escape \\u inválido na coluna " + pos[0]);
+                        }
+                        pos[0] += 4;
+                    }
+                    default -> sb.append(e);
+                }
+            }
+            throw new IllegalArgumentException("texto sem aspas de fechamento");
+        }
+
+        private static void expect(String s, int[] pos, char expected) {
+            char c = next(s, pos);
+            if (c != expected) throw new IllegalArgumentException("esperado '" + expected + "' na coluna " + pos[0]);
+        }
+
+        private static char next(String s, int[] pos) {
+            char c = peek(s, pos);
+            pos[0]++;
+            return c;
+        }
+
+        private static char peek(String s, int[] pos) {
+            pos[0] = skip(s, pos[0]);
+            if (pos[0] >= s.length()) throw new IllegalArgumentException("fim de linha inesperado");
+            return s.charAt(pos[0]);
+        }
+
+        private static int skip(String s, int i) {
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+            return i;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.app.service;
+
+import com.example.app.model.Message;
+import com.example.app.util.Metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de entrada dos envios, antes da fila.
+ * <ul>
+ * <li>Repetidos: o hash de (e-mail, corpo) fica numa tabela de tamanho fixo por
+ * {@code dedupWindow}; o mesmo conteúdo dentro da janela é recusado (e renova a janela).
+ * Consulta e inclusão são um único passo, então envios simultâneos iguais não passam juntos.</li>
+ * <li>Excesso: balde de fichas por e-mail normalizado, guardado como um único
+ * {@code long} (instante teórico da próxima ficha) e atualizado com CAS, sem lock.</li>
+ * </ul>
+ * Um envio aceito custa um hash do corpo guardado e algumas operações atômicas.
+ */
+public final class IntakeFilter {
+
+    public enum Verdict { ACCEPTED, DUPLICATE, RATE_LIMITED }
+
+    private static final int PROBES = 8;
+    private static final int MAX_SENDERS = 10_000; // acima disso, baldes cheios são descartados
+    private static final long REMOVED = Long.MIN_VALUE; // balde já retirado do mapa por sweep()
+    private static final Metrics.Counter DUPLICATES = Metrics.counter("intake.duplicate");
+    private static final Metrics.Counter RATE_LIMITED = Metrics.counter("intake.rateLimited");
+
+    private final long dedupWindowNanos;
+    private final long[] hashes;
+    private final long[] expiries; // 0: posição livre
+    private final int mask;
+
+    private final long intervalNanos;  // tempo para repor uma ficha
+    private final long toleranceNanos; // (capacidade - 1) * intervalo
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+
+    /** Repetidos por 60 s (até 1024 conteúdos); até 5 envios seguidos por e-mail, depois 1 a cada 6 s. */
+    public IntakeFilter() {
+        this(60, TimeUnit.SECONDS, 1024, 5, 6, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param dedupWindow   por quanto tempo um conteúdo aceito bloqueia o mesmo conteúdo
+     * @param dedupCapacity conteúdos lembrados (arredondado para potência de 2)
+     * @param burst         envios seguidos permitidos por e-mail
+     * @param refill        tempo para liberar mais um envio
+     */
+    public IntakeFilter(long dedupWindow, TimeUnit dedupUnit, int dedupCapacity,
+                        int burst, long refill, TimeUnit refillUnit) {
+        this.dedupWindowNanos = dedupUnit.toNanos(dedupWindow);
+        int size = Integer.highestOneBit(Math.max(PROBES, dedupCapacity - 1) << 1);
+        this.hashes = new long[size];
+        this.expiries = new long[size];
+        this.mask = size - 1;
+        this.intervalNanos = Math.max(1, refillUnit.toNanos(refill));
+        this.toleranceNanos = (Math.max(1, burst) - 1) * intervalNanos;
+    }
+
+    public Verdict check(Message m) {
+        return check(m, System.nanoTime());
+    }
+
+    /** @param now instante em {@link System#nanoTime()} */
+    public Verdict check(Message m, long now) {
+        long hash = m.contentHash();
+        if (!claim(hash, now)) {
+            duplicates.increment();
+            DUPLICATES.increment();
+            return Verdict.DUPLICATE;
+        }
+        if (!acquire(m.getNormalizedEmail(), now)) {
+            release(hash); // Recusado: o conteúdo não conta como enviado
+            rateLimited.increment();
+            RATE_LIMITED.increment();
+            return Verdict.RATE_LIMITED;
+        }
+        return Verdict.ACCEPTED;
+    }
+
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    public long getRejectedCount() {
+        return duplicates.sum() + rateLimited.sum();
+    }
+
+    /**
+     * Registra o conteúdo, se ele não estiver na janela; se estiver, renova a janela e
+     * devolve {@code false}. Ocupa uma posição livre ou vencida; com todas ocupadas, a que
+     * vence primeiro.
+     */
+    private synchronized boolean claim(long hash, long now) {
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        int free = -1;
+        int oldest = -1;
+        for (int i = 0; i < PROBES; i++, slot = (slot + 1) & mask) {
+            long expiry = expiries[slot];
+            if (expiry == 0 || expiry - now <= 0) {
+                if (free < 0) free = slot;
+            } else if (hashes[slot] == hash) {
+                expiries[slot] = now + dedupWindowNanos;
+                return false;
+            } else if (oldest < 0 || expiry - expiries[oldest] < 0) {
+                oldest = slot;
+            }
+        }
+        int victim = free >= 0 ? free : oldest;
+        hashes[victim] = hash;
+        expiries[victim] = now + dedupWindowNanos;
+        return true;
+    }
+
+    /** Desfaz um {@link #claim} cujo envio acabou recusado. */
+    private synchronized void release(long hash) {
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        for (int i = 0; i < PROBES; i++, slot = (slot + 1) & mask) {
+            if (expiries[slot] != 0 && hashes[slot] == hash) {
+                expiries[slot] = 0;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Balde de fichas na forma GCRA: {@code tat} é quando o balde estaria cheio de novo.
+     * Há ficha se {@code tat - now <= tolerância}; cada envio empurra {@code tat} um intervalo.
+     */
+    private boolean acquire(String sender, long now) {
+        if (sender == null) return true;
+        AtomicLong tat = buckets.get(sender);
+        while (true) {
+            if (tat == null) {
+                if (buckets.size() >= MAX_SENDERS) sweep(now);
+                tat = buckets.computeIfAbsent(sender, k -> new AtomicLong(now));
+            }
+            long current = tat.get();
+            if (current == REMOVED) {
+                // Descartado por sweep() entre a leitura do mapa e aqui: usa o balde novo
+                buckets.remove(sender, tat);
+                tat = null;
+                continue;
+            }
+            long base = current - now > 0 ? current : now;
+            if (base - now > toleranceNanos) return false;
+            if (tat.compareAndSet(current, base + intervalNanos)) return true;
+        }
+    }
+
+    /**
+     * Remove os baldes já cheios: equivalem a um remetente novo. Cada um é marcado com
+     * CAS antes de sair do mapa, então um {@link #acquire} simultâneo ou vence (e o balde
+     * fica) ou vê a marca e busca outro; nenhuma ficha consumida se perde.
+     */
+    private void sweep(long now) {
+        for (Map.Entry<String, AtomicLong> e : buckets.entrySet()) {
+            AtomicLong tat = e.getValue();
+            long current = tat.get();
+            if (current != REMOVED && current - now <= 0 && tat.compareAndSet(current, REMOVED)) {
+                buckets.remove(e.getKey(), tat);
+            }
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.app.service;
+
+import com.example.app.model.Message;
+import com.example.app.model.MessageHistory;
+import com.example.app.util.DateFormats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Exporta um envio ou o histórico inteiro em JSON, CSV ou texto.
+ * O conteúdo é codificado direto em buffers reaproveitados (um par por thread) e
+ * escrito em um {@link FileChannel}; o documento nunca existe inteiro em memória.
+ * Colunas e chaves são as mesmas aceitas pela importação em lote.
+ */
+public final class MessageExporter {
+
+    public enum Format {
+        JSON("json"), CSV("csv"), TXT("txt");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /** Formato pela extensão do arquivo; JSON se não reconhecer. */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            for (Format f : values()) {
+                if (name.endsWith("." + f.extension)) return f;
+            }
+            return JSON;
+        }
+    }
+
+    /** Progresso da exportação do histórico; chamado na thread que exporta. */
+    @FunctionalInterface
+    public interface Progress {
+        void update(int done, int total);
+    }
+
+    private static final DateTimeFormatter ISO = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final String CSV_HEADER = "name,email,body,createdAt\n";
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private MessageExporter() {}
+
+    /** Resumo de um envio, seguido da lista de envios do mesmo remetente ({@code sends}). */
+    public static void exportMessage(Message m, List<Message> sends, Format format, Path file) throws IOException {
+        try (Out out = Out.open(file)) {
+            switch (format) {
+                case JSON -> {
+                    out.append("{\n  ");
+                    jsonFields(out, m);
+                    out.append(",\n  \"sends\": [");
+                    for (int i = 0; i < sends.size(); i++) {
+                        out.append(i == 0 ? "\n    {" : ",\n    {");
+                        jsonFields(out, sends.get(i));
+                        out.append('}');
+                    }
+                    out.append(sends.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+                }
+                case CSV -> {
+                    out.append(CSV_HEADER);
+                    csvRow(out, m);
+                    for (Message s : sends) {
+                        if (!sameSend(s, m)) csvRow(out, s);
+                    }
+                }
+                case TXT -> {
+                    out.append("Nome: ").append(m.getName()).append('\n');
+                    out.append("E-mail: ").append(m.getEmail()).append('\n');
+                    out.append("Enviado em: ");
+                    DateFormats.DISPLAY.formatTo(m.getCreatedAt(), out);
+                    out.append("\n\n").append(m.getBody()).append("\n\n");
+                    out.append("Envios deste remetente (").append(Integer.toString(sends.size())).append("):\n");
+                    for (Message s : sends) txtLine(out, s);
+                }
+            }
+            out.commit();
+        }
+    }
+
+    /** Histórico do snapshot, das mais antigas às mais recentes. */
+    public static void exportHistory(MessageHistory.Snapshot snapshot, Format format, Path file,
+                                     Progress progress) throws IOException {
+        int total = snapshot.size();
+        try (Out out = Out.open(file)) {
+            switch (format) {
+                case JSON -> out.append("[");
+                case CSV -> out.append(CSV_HEADER);
+                case TXT -> out.append("Histórico de mensagens (").append(Integer.toString(total)).append(")\n\n");
+            }
+            boolean first = true;
+            for (int row = total - 1; row >= 0; row--) {
+                Message m = snapshot.get(row);
+                if (m != null) { // Descartada durante a exportação
+                    switch (format) {
+                        case JSON -> {
+                            out.append(first ? "\n  {" : ",\n  {");
+                            jsonFields(out, m);
+                            out.append('}');
+                        }
+                        case CSV -> csvRow(out, m);
+                        case TXT -> {
+                            out.append(m.getName()).append(" <").append(m.getEmail()).append("> - ");
+                            DateFormats.DISPLAY.formatTo(m.getCreatedAt(), out);
+                            out.append('\n').append(m.getBody()).append("\n\n");
+                        }
+                    }
+                    first = false;
+                }
+                int done = total - row;
+                if (progress != null && (done & 255) == 0) progress.update(done, total);
+            }
+            if (format == Format.JSON) out.append(first ? "]\n" : "\n]\n");
+            out.commit();
+        }
+        if (progress != null) progress.update(total, total);
+    }
+
+    /**
+     * Com o histórico fora do heap cada leitura cria outro objeto: compara pelo conteúdo.
+     * Data, e-mail normalizado e {@link Message#contentHash()} (sobre a forma guardada)
+     * vêm antes; o corpo, que descomprime, só é lido quando tudo isso bate.
+     */
+    private static boolean sameSend(Message a, Message b) {
+        if (a == b) return true;
+        return a.getCreatedAtMillis() == b.getCreatedAtMillis()
+                && Objects.equals(a.getNormalizedEmail(), b.getNormalizedEmail())
+                && a.contentHash() == b.contentHash()
+                && Objects.equals(a.getEmail(), b.getEmail())
+                && Objects.equals(a.getBody(), b.getBody());
+    }
+
+    private static void jsonFields(Out out, Message m) throws IOException {
+        out.append("\"name\": ");
+        jsonString(out, m.getName());
+        out.append(", \"email\": ");
+        jsonString(out, m.getEmail());
+        out.append(", \"body\": ");
+        jsonString(out, m.getBody());
+        out.append(", \"createdAt\": \"");
+        ISO.formatTo(m.getCreatedAt(), out);
+        out.append('"');
+    }
+
+    private static void jsonString(Out out, String s) throws IOException {
+        if (s == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 15, 16));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    private static void csvRow(Out out, Message m) throws IOException {
+        csvField(out, m.getName());
+        out.append(',');
+        csvField(out, m.getEmail());
+        out.append(',');
+        csvField(out, m.getBody());
+        out.append(',');
+        ISO.formatTo(m.getCreatedAt(), out);
+        out.append('\n');
+    }
+
+    /** Entre aspas só quando necessário, com aspas internas duplicadas. */
+    private static void csvField(Out out, String s) throws IOException {
+        if (s == null) return;
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(s);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void txtLine(Out out, Message m) throws IOException {
+        out.append("  ");
+        DateFormats.DISPLAY.formatTo(m.getCreatedAt(), out);
+        out.append("  ");
+        String preview = m.getPreview(); // Sem descomprimir o corpo
+        for (int i = 0; i < preview.length(); i++) {
+            char c = preview.charAt(i);
+            out.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        out.append('\n');
+    }
+
+    /** Par de buffers reaproveitado entre exportações da mesma thread. */
+    private static final class Buffers {
+        final CharBuffer chars = CharBuffer.allocate(8 * 1024);
+        final ByteBuffer bytes = ByteBuffer.allocateDirect(64 * 1024);
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Escrita em um arquivo temporário ao lado do destino, que só o substitui em
+     * {@link #commit()}; fechar sem commit descarta o temporário.
+     */
+    private static final class Out implements Appendable, Closeable {
+        private final Path file;
+        private final Path tmp;
+        private final FileChannel channel;
+        private final CharBuffer chars;
+        private final ByteBuffer bytes;
+        private final CharsetEncoder encoder;
+        private boolean committed;
+
+        private Out(Path file, Path tmp, FileChannel channel, Buffers buffers) {
+            this.file = file;
+            this.tmp = tmp;
+            this.channel = channel;
+            this.chars = buffers.chars.clear();
+            this.bytes = buffers.bytes.clear();
+            this.encoder = buffers.encoder;
+            encoder.reset();
+        }
+
+        static Out open(Path file) throws IOException {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            return new Out(file, tmp, channel, BUFFERS.get());
+        }
+
+        @Override
+        public Out append(CharSequence s) throws IOException {
+            if (s == null) return this;
+            for (int i = 0; i < s.length(); ) {
+                if (!chars.hasRemaining()) encode(false);
+                int n = Math.min(chars.remaining(), s.length() - i);
+                if (s instanceof String str) {
+                    str.getChars(i, i + n, chars.array(), chars.arrayOffset() + chars.position());
+                    chars.position(chars.position() + n);
+                } else {
+                    for (int k = 0; k < n; k++) chars.put(s.charAt(i + k));
+                }
+                i += n;
+            }
+            return this;
+        }
+
+        @Override
+        public Out append(CharSequence s, int start, int end) throws IOException {
+            return append(s == null ? null : s.subSequence(start, end));
+        }
+
+        @Override
+        public Out append(char c) throws IOException {
+            if (!chars.hasRemaining()) encode(false);
+            chars.put(c);
+            return this;
+        }
+
+        /** Codifica o que há em {@code chars}; um surrogate incompleto fica para a próxima vez. */
+        private void encode(boolean endOfInput) throws IOException {
+            chars.flip();
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, endOfInput);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isUnderflow()) {
+                    break;
+                } else {
+                    result.throwException();
+                }
+            }
+            chars.compact();
+        }
+
+        private void drain() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) channel.write(bytes);
+            bytes.clear();
+        }
+
+        void commit() throws IOException {
+            encode(true);
+            while (encoder.flush(bytes).isOverflow()) drain();
+            drain();
+            channel.force(false);
+            channel.close();
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            chars.clear();
+            bytes.clear();
+            if (committed) return;
+            channel.close();
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -1,77 +1,161 @@
 package com.example.app.service;
 
+import com.example.app.model.MessageHistory;
+import com.example.app.util.AppEvents;
+import com.example.app.util.Metrics;
+
 import java.awt.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
 import java.util.Properties;
-
-/** Serviço expandido para persistir múltiplas preferências. */
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serviço expandido para persistir múltiplas preferências.
+ * O arquivo é lido uma única vez; leituras vêm da memória e alterações são gravadas
+ * em segundo plano, agrupadas, com escrita em arquivo temporário e rename atômico.
+ */
 public class PreferencesService {
 
+    private static final long FLUSH_DELAY_MILLIS = 500;
+    private static final Metrics.Timer LOAD_TIME = Metrics.timer("preferences.load");
+    private static final Metrics.Timer SAVE_TIME = Metrics.timer("preferences.save");
+    private static final Metrics.Counter BYTES_READ = Metrics.counter("preferences.bytes.read");
+    private static final Metrics.Counter BYTES_WRITTEN = Metrics.counter("preferences.bytes.written");
+
     private final Path file;
+    private final Properties props;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "preferences-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Object flushLock = new Object();
+    private ScheduledFuture<?> pendingFlush;
+    private boolean dirty;
 
     public PreferencesService() {
-        this.file = Path.of(System.getProperty("user.home"), ".swing_forms_summary.properties");
+        this(Path.of(System.getProperty("user.home"), ".swing_forms_summary.properties"));
+    }
+
+    public PreferencesService(Path file) {
+        this.file = file;
+        this.props = loadProperties();
     }
 
     private Properties loadProperties() {
         Properties props = new Properties();
         if (Files.exists(file)) {
-            try (InputStream in = Files.newInputStream(file)) {
-                props.load(in);
+            long start = Metrics.start();
+            AppEvents.Preferences event = new AppEvents.Preferences();
+            event.begin();
+            event.operation = "load";
+            try {
+                byte[] data = Files.readAllBytes(file);
+                props.load(new ByteArrayInputStream(data));
+                event.bytes = data.length;
+                event.success = true;
+                BYTES_READ.add(data.length);
             } catch (IOException ignored) {
                 System.err.println("Erro ao carregar preferências: " + file);
             }
+            if (event.shouldCommit()) {
+                event.file = file.toString();
+                event.commit();
+            }
+            LOAD_TIME.record(start);
         }
         return props;
     }
 
-    private void saveProperties(Properties props) {
-        try (OutputStream out = Files.newOutputStream(file)) {
-            props.store(out, "Swing Forms Summary Preferences - Updated");
-        } catch (IOException ignored) {
-            System.err.println("Erro ao salvar preferências: " + file);
+    /** Altera o valor em memória e agenda a gravação; sucessivas alterações são agrupadas. */
+    private synchronized void set(String key, String value) {
+        if (value.equals(props.getProperty(key))) return;
+        props.setProperty(key, value);
+        dirty = true;
+        if (pendingFlush != null) pendingFlush.cancel(false);
+        pendingFlush = writer.schedule(this::flush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Grava imediatamente as alterações pendentes. */
+    public void flush() {
+        synchronized (flushLock) {
+            Properties copy;
+            synchronized (this) {
+                if (!dirty) return;
+                dirty = false;
+                copy = new Properties();
+                copy.putAll(props);
+            }
+            long start = Metrics.start();
+            AppEvents.Preferences event = new AppEvents.Preferences();
+            event.begin();
+            event.operation = "save";
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+                copy.store(buffer, "Swing Forms Summary Preferences - Updated");
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    buffer.writeTo(out);
+                }
+                try {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                event.bytes = buffer.size();
+                event.success = true;
+                BYTES_WRITTEN.add(buffer.size());
+            } catch (IOException ignored) {
+                System.err.println("Erro ao salvar preferências: " + file);
+                synchronized (this) { dirty = true; }
+            }
+            if (event.shouldCommit()) {
+                event.file = file.toString();
+                event.commit();
+            }
+            SAVE_TIME.record(start);
         }
     }
 
     // Métodos existentes
     public String loadName() {
-        return loadProperties().getProperty("name", "");
+        return props.getProperty("name", "");
     }
 
     public void saveName(String name) {
-        Properties props = loadProperties();
-        props.setProperty("name", name == null ? "" : name);
-        saveProperties(props);
+        set("name", name == null ? "" : name);
     }
 
     // Novos métodos para email
     public String loadLastEmail() {
-        return loadProperties().getProperty("lastEmail", "");
+        return props.getProperty("lastEmail", "");
     }
 
     public void saveLastEmail(String email) {
-        Properties props = loadProperties();
-        props.setProperty("lastEmail", email == null ? "" : email);
-        saveProperties(props);
+        set("lastEmail", email == null ? "" : email);
     }
 
     // Configurações de UI
     public boolean isRememberWindowSize() {
-        return Boolean.parseBoolean(loadProperties().getProperty("rememberWindowSize", "true"));
+        return Boolean.parseBoolean(props.getProperty("rememberWindowSize", "true"));
     }
 
     public void setRememberWindowSize(boolean remember) {
-        Properties props = loadProperties();
-        props.setProperty("rememberWindowSize", String.valueOf(remember));
-        saveProperties(props);
+        set("rememberWindowSize", String.valueOf(remember));
     }
 
     public Dimension loadWindowSize() {
-        Properties props = loadProperties();
         try {
             int width = Integer.parseInt(props.getProperty("windowWidth", "560"));
             int height = Integer.parseInt(props.getProperty("windowHeight", "440"));
@@ -83,15 +167,12 @@ public class PreferencesService {
 
     public void saveWindowSize(Dimension size) {
         if (size == null) return;
-        Properties props = loadProperties();
-        props.setProperty("windowWidth", String.valueOf(size.width));
-        props.setProperty("windowHeight", String.valueOf(size.height));
-        saveProperties(props);
+        set("windowWidth", String.valueOf(size.width));
+        set("windowHeight", String.valueOf(size.height));
     }
 
     // Configuração de histórico
     public int getHistoryMaxSize() {
-        Properties props = loadProperties();
         try {
             return Math.max(10, Integer.parseInt(props.getProperty("historyMaxSize", "50")));
         } catch (NumberFormatException e) {
@@ -100,8 +181,56 @@ public class PreferencesService {
     }
 
     public void setHistoryMaxSize(int maxSize) {
-        Properties props = loadProperties();
-        props.setProperty("historyMaxSize", String.valueOf(Math.max(10, maxSize)));
-        saveProperties(props);
+        set("historyMaxSize", String.valueOf(Math.max(10, maxSize)));
+    }
+
+    public MessageHistory.Backend getHistoryBackend() {
+        String value = props.getProperty("historyBackend", "HEAP");
+        try {
+            return MessageHistory.Backend.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return MessageHistory.Backend.HEAP;
+        }
+    }
+
+    public void setHistoryBackend(MessageHistory.Backend backend) {
+        set("historyBackend", (backend == null ? MessageHistory.Backend.HEAP : backend).name());
+    }
+
+    public HistoryJournal.SyncMode getHistorySyncMode() {
+        String value = props.getProperty("historySync", "GROUP");
+        try {
+            return HistoryJournal.SyncMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return HistoryJournal.SyncMode.GROUP;
+        }
+    }
+
+    public void setHistorySyncMode(HistoryJournal.SyncMode mode) {
+        set("historySync", (mode == null ? HistoryJournal.SyncMode.GROUP : mode).name());
+    }
+
+    /** Compartilha o histórico com as outras instâncias da estação ({@link SharedHistory}). */
+    public boolean isHistoryShared() {
+        return Boolean.parseBoolean(props.getProperty("historyShared", "false"));
+    }
+
+    public void setHistoryShared(boolean shared) {
+        set("historyShared", String.valueOf(shared));
+    }
+
+    // Entrega por SMTP (desativada enquanto smtpHost estiver vazio)
+    public SmtpSettings getSmtpSettings() {
+        String host = props.getProperty("smtpHost", "").trim();
+        if (host.isEmpty()) return null;
+        int port;
+        try {
+            port = Integer.parseInt(props.getProperty("smtpPort", "25").trim());
+        } catch (NumberFormatException e) {
+            port = 25;
+        }
+        String to = props.getProperty("smtpTo", "").trim();
+        String from = props.getProperty("smtpFrom", to).trim();
+        return new SmtpSettings(host, port, from, to);
     }
-}
\ No newline at end of file
+}
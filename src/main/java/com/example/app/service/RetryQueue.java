@@ -0,0 +1,167 @@
+package com.example.app.service;
+
+import com.example.app.model.Message;
+import com.example.app.model.MessageCodec;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Caixa de saída persistente: mensagens ainda não entregues, ordenadas pelo horário
+ * da próxima tentativa. O arquivo é regravado por inteiro (temporário + rename
+ * atômico) apenas quando há alterações. Não é thread-safe: o {@link DeliveryEngine}
+ * sincroniza o acesso; só {@link #write(byte[])} pode rodar fora desse lock.
+ */
+final class RetryQueue {
+    private static final int MAGIC = 0x53464F31; // "SFO1"
+
+    static final class Entry {
+        final long id;
+        final Message message;
+        int attempts;
+        long nextAttemptAt;
+
+        Entry(long id, Message message, int attempts, long nextAttemptAt) {
+            this.id = id;
+            this.message = message;
+            this.attempts = attempts;
+            this.nextAttemptAt = nextAttemptAt;
+        }
+    }
+
+    private final Path file;
+    private final PriorityQueue<Entry> waiting = new PriorityQueue<>(
+            Comparator.<Entry>comparingLong(e -> e.nextAttemptAt).thenComparingLong(e -> e.id));
+    private final Set<Entry> inFlight = new LinkedHashSet<>();
+    private long nextId;
+    private boolean dirty;
+
+    RetryQueue(Path file) {
+        this.file = file;
+        load();
+    }
+
+    Entry add(Message message, long now) {
+        Entry e = new Entry(nextId++, message, 0, now);
+        waiting.add(e);
+        dirty = true;
+        return e;
+    }
+
+    /** Retira até {@code max} entradas vencidas; ficam "em andamento" até concluir ou reagendar. */
+    List<Entry> pollDue(long now, int max) {
+        List<Entry> due = new ArrayList<>();
+        while (due.size() < max && !waiting.isEmpty() && waiting.peek().nextAttemptAt <= now) {
+            Entry e = waiting.poll();
+            inFlight.add(e);
+            due.add(e);
+        }
+        return due;
+    }
+
+    void complete(Entry e) {
+        inFlight.remove(e);
+        dirty = true;
+    }
+
+    void reschedule(Entry e, long at) {
+        inFlight.remove(e);
+        e.nextAttemptAt = at;
+        waiting.add(e);
+        dirty = true;
+    }
+
+    /** Horário da próxima tentativa, ou {@code Long.MAX_VALUE} se não houver nada aguardando. */
+    long nextDueAt() {
+        Entry first = waiting.peek();
+        return first == null ? Long.MAX_VALUE : first.nextAttemptAt;
+    }
+
+    int size() {
+        return waiting.size() + inFlight.size();
+    }
+
+    /**
+     * Conteúdo do arquivo, se houve alterações desde o último retrato, para gravar com
+     * {@link #write(byte[])}; {@code null} se não houver nada a gravar.
+     */
+    byte[] snapshotIfDirty() {
+        if (!dirty) return null;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(size());
+            for (Entry e : inFlight) write(out, e);
+            for (Entry e : waiting) write(out, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Em memória: não acontece
+        }
+        dirty = false;
+        return bytes.toByteArray();
+    }
+
+    /** Volta a considerar a fila alterada (depois de uma gravação que falhou). */
+    void markDirty() {
+        dirty = true;
+    }
+
+    /** Grava um retrato de {@link #snapshotIfDirty()}; não acessa a fila. */
+    boolean write(byte[] snapshot) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(tmp, snapshot);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar caixa de saída: " + file);
+            return false;
+        }
+    }
+
+    private static void write(DataOutputStream out, Entry e) throws IOException {
+        byte[] data = MessageCodec.encode(e.message);
+        out.writeInt(e.attempts);
+        out.writeLong(e.nextAttemptAt);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private void load() {
+        if (!Files.exists(file)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Formato inválido");
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int attempts = in.readInt();
+                long nextAttemptAt = in.readLong();
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                waiting.add(new Entry(nextId++, MessageCodec.decode(ByteBuffer.wrap(data)), attempts, nextAttemptAt));
+            }
+        } catch (EOFException e) {
+            System.err.println("Caixa de saída incompleta, mantendo " + waiting.size() + " mensagens: " + file);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erro ao carregar caixa de saída: " + file);
+        }
+    }
+}
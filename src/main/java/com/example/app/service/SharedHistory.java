@@ -0,0 +1,361 @@
+package com.example.app.service;
+
+import com.example.app.model.HistoryEvent;
+import com.example.app.model.HistoryListener;
+import com.example.app.model.Message;
+import com.example.app.model.MessageCodec;
+import com.example.app.model.MessageHistory;
+import com.example.app.util.Metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histórico compartilhado entre as instâncias da estação, num arquivo em anel mapeado
+ * em memória.
+ * <p>
+ * O cabeçalho guarda o total de registros publicados ({@code seq}) e as posições lógicas
+ * (sempre crescentes) do registro mais antigo e do fim ({@code head}/{@code tail}); a posição
+ * no arquivo é a lógica módulo a capacidade. Cada registro é
+ * {@code [tamanho][seq][instância][mensagem]}, alinhado em 8 bytes; um registro que não cabe
+ * até o fim do anel deixa um marcador e recomeça do início. Quem publica trava o cabeçalho
+ * com {@link FileLock} exclusivo e, se preciso, descarta os registros mais antigos.
+ * Os envios locais só entram numa fila dentro do evento do histórico; a gravação (e a espera
+ * pela trava, que outra instância pode segurar) fica na thread de consulta, fora do lock do
+ * {@link MessageHistory}.
+ * <p>
+ * As outras instâncias consultam só o {@code seq} no mapeamento a cada {@link #POLL_MILLIS};
+ * quando ele muda, leem (com trava compartilhada) apenas os registros novos e os incluem
+ * no {@link MessageHistory} local, sem republicá-los.
+ */
+public final class SharedHistory implements HistoryListener, Closeable {
+
+    /** Capacidade do anel em arquivos novos; arquivos existentes mantêm a deles. */
+    public static final int DEFAULT_CAPACITY = 8 * 1024 * 1024;
+
+    private static final int MAGIC = 0x53465348; // "SFSH"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_CAPACITY = 8;
+    private static final int OFF_SEQ = 16;
+    private static final int OFF_HEAD = 24;
+    private static final int OFF_TAIL = 32;
+    private static final int RECORD_HEADER = 20; // tamanho(4) + seq(8) + instância(8)
+    private static final int WRAP = -1;          // marcador: o resto do anel está vazio
+    private static final long POLL_MILLIS = 250;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final ThreadLocal<Boolean> IMPORTING = ThreadLocal.withInitial(() -> false);
+    private static final Metrics.Counter PUBLISHED = Metrics.counter("shared.published");
+    private static final Metrics.Counter IMPORTED = Metrics.counter("shared.imported");
+    private static final Metrics.Counter MISSED = Metrics.counter("shared.missed");
+    private static final Map<Path, Object> GUARDS = new ConcurrentHashMap<>(); // um monitor por arquivo
+
+    private final Path file;
+    private final MessageHistory history;
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int capacity;
+    private final long instanceId = ThreadLocalRandom.current().nextLong() ^ ProcessHandle.current().pid();
+    private final ScheduledExecutorService poller;
+    private final Queue<Message> outgoing = new ConcurrentLinkedQueue<>(); // envios locais a publicar
+
+    // Guardados por guard: FileLock vale para a JVM inteira, então instâncias no mesmo
+    // arquivo dentro da JVM se revezam por este monitor em vez de colidirem na trava
+    private final Object guard;
+    private long cursor;   // posição lógica do próximo registro a ler
+    private long seenSeq;  // seq já lido; só a thread de consulta altera
+    private boolean closed;
+
+    private SharedHistory(Path file, MessageHistory history, FileChannel channel, MappedByteBuffer map, int capacity) {
+        this.file = file;
+        this.history = history;
+        this.channel = channel;
+        this.map = map;
+        this.capacity = capacity;
+        this.guard = guardFor(file);
+        this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "shared-history");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Abre (ou cria) o arquivo compartilhado e passa a publicar os envios deste histórico
+     * e a receber os das outras instâncias. Só o que for publicado depois da abertura é
+     * recebido: o que já estava no anel veio, nas outras instâncias, do próprio journal.
+     *
+     * @param capacity tamanho do anel, usado apenas se o arquivo ainda não existir
+     * @throws IOException se o arquivo não puder ser criado ou mapeado, ou for de outro
+     *                     formato ou versão
+     */
+    public static SharedHistory open(Path file, MessageHistory history, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            SharedHistory shared;
+            synchronized (guardFor(file)) {
+                FileLock lock = channel.lock(0, HEADER_SIZE, false);
+                try {
+                    shared = map(file, history, channel, capacity);
+                    shared.cursor = shared.map.getLong(OFF_TAIL);
+                    shared.seenSeq = shared.map.getLong(OFF_SEQ);
+                } finally {
+                    lock.release();
+                }
+            }
+            history.addListener(shared);
+            shared.poller.scheduleWithFixedDelay(shared::pollQuietly, POLL_MILLIS, POLL_MILLIS, TimeUnit.MILLISECONDS);
+            return shared;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static Object guardFor(Path file) {
+        return GUARDS.computeIfAbsent(file.toAbsolutePath().normalize(), k -> new Object());
+    }
+
+    /**
+     * Com o cabeçalho travado: mapeia o arquivo, inicializando-o se for novo (vazio ou com o
+     * cabeçalho zerado, de uma criação interrompida). Um arquivo de outro formato ou versão
+     * não é tocado: outras instâncias (de outra versão do app) podem estar com ele mapeado.
+     */
+    private static SharedHistory map(Path file, MessageHistory history, FileChannel channel, int capacity)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0); // Arquivo menor que o cabeçalho: o resto fica zerado
+        int magic = header.getInt(OFF_MAGIC);
+        if (magic == MAGIC) {
+            long existing = header.getLong(OFF_CAPACITY);
+            if (header.getInt(OFF_VERSION) != VERSION) {
+                throw new IOException("Histórico compartilhado de outra versão (" + header.getInt(OFF_VERSION) + "): " + file);
+            }
+            if (existing <= 0 || existing % 8 != 0 || existing > Integer.MAX_VALUE - HEADER_SIZE
+                    || channel.size() < HEADER_SIZE + existing) {
+                throw new IOException("Histórico compartilhado inválido: " + file);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + existing);
+            return new SharedHistory(file, history, channel, map, (int) existing);
+        }
+        for (int i = 0; i < HEADER_SIZE; i++) {
+            if (header.get(i) != 0) throw new IOException("Arquivo não é um histórico compartilhado: " + file);
+        }
+
+        int size = Math.max(4096, capacity) & ~7;
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + size);
+        map.putInt(OFF_VERSION, VERSION).putLong(OFF_CAPACITY, size)
+                .putLong(OFF_SEQ, 0).putLong(OFF_HEAD, 0).putLong(OFF_TAIL, 0);
+        map.force();
+        // Mágico por último: um cabeçalho com ele está completo
+        map.putInt(OFF_MAGIC, MAGIC);
+        map.force();
+        return new SharedHistory(file, history, channel, map, size);
+    }
+
+    // Publicação
+
+    @Override
+    public void historyChanged(HistoryEvent event) {
+        // Limpezas e descartes continuam locais a cada instância
+        if (event.getType() != HistoryEvent.Type.ADDED || IMPORTING.get()) return;
+        outgoing.add(event.getMessage());
+        try {
+            poller.execute(this::publishPending);
+        } catch (RejectedExecutionException e) {
+            // Fechando: close() já descartou o que não foi publicado
+        }
+    }
+
+    /** Na thread de consulta: grava tudo o que está na fila com uma única trava do arquivo. */
+    private void publishPending() {
+        List<byte[]> payloads = new ArrayList<>();
+        for (Message m; (m = outgoing.poll()) != null; ) {
+            byte[] payload = MessageCodec.encode(m);
+            if (align(RECORD_HEADER + payload.length) > capacity / 2) {
+                System.err.println("Erro ao compartilhar mensagem: grande demais para " + file);
+            } else {
+                payloads.add(payload);
+            }
+        }
+        if (payloads.isEmpty()) return;
+        synchronized (guard) {
+            if (closed) return;
+            try {
+                FileLock lock = channel.lock(0, HEADER_SIZE, false);
+                try {
+                    for (byte[] payload : payloads) append(payload, align(RECORD_HEADER + payload.length));
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                System.err.println("Erro ao compartilhar mensagem: " + file);
+                return;
+            }
+        }
+        PUBLISHED.add(payloads.size());
+    }
+
+    /** Com o cabeçalho travado: grava o registro no fim do anel e publica o novo {@code seq}. */
+    private void append(byte[] payload, int size) {
+        long seq = map.getLong(OFF_SEQ);
+        long head = map.getLong(OFF_HEAD);
+        long tail = map.getLong(OFF_TAIL);
+        int pos = (int) (tail % capacity);
+        int skip = pos + size > capacity ? capacity - pos : 0;
+        if (head > tail || tail - head > capacity) head = tail; // Cabeçalho corrompido: recomeça vazio
+        while (tail + skip + size - head > capacity) head = next(head, tail);
+
+        if (skip > 0) {
+            map.putInt(HEADER_SIZE + pos, WRAP);
+            tail += skip;
+            pos = 0;
+        }
+        int at = HEADER_SIZE + pos;
+        map.putInt(at, RECORD_HEADER + payload.length).putLong(at + 4, seq).putLong(at + 12, instanceId);
+        map.put(at + RECORD_HEADER, payload);
+        map.putLong(OFF_HEAD, head);
+        map.putLong(OFF_TAIL, tail + size);
+        // Publicado por último: quem vê o seq novo vê o registro
+        LONGS.setRelease(map, OFF_SEQ, seq + 1);
+    }
+
+    /** Posição lógica do registro seguinte ao que começa em {@code at}; {@code tail} se ele for inválido. */
+    private long next(long at, long tail) {
+        int pos = (int) (at % capacity);
+        int len = map.getInt(HEADER_SIZE + pos);
+        if (len == WRAP) return at + capacity - pos;
+        return validLength(len, pos) ? at + align(len) : tail;
+    }
+
+    /** Um registro em {@code pos} tem ao menos o cabeçalho e termina antes do fim do anel. */
+    private boolean validLength(int len, int pos) {
+        return len >= RECORD_HEADER && len <= capacity - pos;
+    }
+
+    private static int align(int len) {
+        return (len + 7) & ~7;
+    }
+
+    // Consulta
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erro ao ler histórico compartilhado: " + e.getMessage());
+        }
+    }
+
+    private void poll() throws IOException {
+        // Caminho comum: uma leitura do mapeamento, sem trava nem acesso ao arquivo
+        if ((long) LONGS.getAcquire(map, OFF_SEQ) == seenSeq) return;
+
+        List<Message> incoming = new ArrayList<>();
+        synchronized (guard) {
+            if (closed) return;
+            FileLock lock = channel.lock(0, HEADER_SIZE, true);
+            try {
+                long seq = map.getLong(OFF_SEQ);
+                long head = map.getLong(OFF_HEAD);
+                long tail = map.getLong(OFF_TAIL);
+                if (head > tail || tail - head > capacity) {
+                    corrupted("cabeçalho inválido");
+                    cursor = tail;
+                } else if (cursor < head || cursor > tail) {
+                    // O anel deu a volta desde a última consulta
+                    MISSED.increment();
+                    cursor = head;
+                }
+                while (cursor < tail) {
+                    int pos = (int) (cursor % capacity);
+                    int at = HEADER_SIZE + pos;
+                    int len = map.getInt(at);
+                    if (len == WRAP) {
+                        cursor += capacity - pos;
+                        continue;
+                    }
+                    if (!validLength(len, pos)) {
+                        corrupted("tamanho de registro " + len);
+                        cursor = tail;
+                        break;
+                    }
+                    if (map.getLong(at + 12) != instanceId) {
+                        try {
+                            incoming.add(MessageCodec.decode(map.slice(at + RECORD_HEADER, len - RECORD_HEADER)));
+                        } catch (RuntimeException e) {
+                            corrupted("mensagem ilegível");
+                            cursor = tail;
+                            break;
+                        }
+                    }
+                    cursor += align(len);
+                }
+                // Avança mesmo depois de um registro ruim: a próxima consulta não repete o erro
+                seenSeq = seq;
+            } finally {
+                lock.release();
+            }
+        }
+        if (incoming.isEmpty()) return;
+
+        IMPORTING.set(true);
+        try {
+            history.addMessages(incoming);
+        } finally {
+            IMPORTING.set(false);
+        }
+        IMPORTED.add(incoming.size());
+    }
+
+    /** Pula o resto do anel; conta como perdido e avisa uma vez por ocorrência. */
+    private void corrupted(String reason) {
+        MISSED.increment();
+        System.err.println("Erro ao ler histórico compartilhado (" + reason + "), pulando para o fim: " + file);
+    }
+
+    @Override
+    public void close() {
+        history.removeListener(this);
+        poller.shutdown();
+        try {
+            // Deixa publicar os envios que já estão na fila
+            poller.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (guard) {
+            if (closed) return;
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar histórico compartilhado: " + file);
+            }
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.app.service;
+
+import com.example.app.model.Message;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Conexão SMTP mantida aberta entre envios. Se o servidor anunciar PIPELINING,
+ * MAIL FROM, RCPT TO e DATA vão juntos em uma única escrita (RFC 2920); o corpo só
+ * segue em 8 bits se ele anunciar 8BITMIME (RFC 6152).
+ */
+final class SmtpSession implements Closeable {
+
+    enum Result { SENT, RETRY, REJECTED }
+
+    /** Octetos por linha, sem o CRLF (RFC 5321, 4.5.3.1.6). */
+    private static final int MAX_LINE = 998;
+    /** Caracteres por linha codificada em quoted-printable, sem o CRLF (RFC 2045). */
+    private static final int QP_LINE = 76;
+    /**
+     * Octetos por palavra codificada: 39 viram 52 em base64, 64 com "=?UTF-8?B?" e "?=",
+     * abaixo do limite de 75 (RFC 2047) e cabendo em 76 colunas depois de "Subject: ".
+     */
+    private static final int WORD_BYTES = 39;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private boolean pipelining;
+    private boolean eightBitMime;
+
+    private SmtpSession(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    static SmtpSession open(SmtpSettings settings) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(settings.getHost(), settings.getPort()), settings.getSocketTimeoutMillis());
+            socket.setSoTimeout(settings.getSocketTimeoutMillis());
+            socket.setTcpNoDelay(true);
+            SmtpSession session = new SmtpSession(socket);
+            session.handshake();
+            return session;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private void handshake() throws IOException {
+        Reply greeting = readReply();
+        if (greeting.code != 220) throw new IOException("Servidor SMTP recusou a conexão: " + greeting);
+        String self = localName();
+        command("EHLO " + self);
+        out.flush();
+        Reply ehlo = readReply();
+        if (ehlo.code == 250) {
+            for (String line : ehlo.lines) {
+                String keyword = line.toUpperCase(Locale.ROOT);
+                if (keyword.startsWith("PIPELINING")) pipelining = true;
+                if (keyword.startsWith("8BITMIME")) eightBitMime = true;
+            }
+            return;
+        }
+        command("HELO " + self);
+        out.flush();
+        Reply helo = readReply();
+        if (helo.code != 250) throw new IOException("HELO recusado: " + helo);
+    }
+
+    boolean isPipelining() {
+        return pipelining;
+    }
+
+    /** O corpo pode seguir em 8 bits (ver {@link #format}). */
+    boolean isEightBitMime() {
+        return eightBitMime;
+    }
+
+    /** Envia uma mensagem já formatada (ver {@link #format}). */
+    Result send(String from, String to, byte[] data) throws IOException {
+        Reply mail;
+        Reply rcpt;
+        Reply dataReply;
+        if (pipelining) {
+            command(mailFrom(from));
+            command("RCPT TO:<" + to + ">");
+            command("DATA");
+            out.flush();
+            mail = readReply();
+            rcpt = readReply();
+            dataReply = readReply();
+        } else {
+            command(mailFrom(from));
+            out.flush();
+            mail = readReply();
+            if (mail.code != 250) return abort(mail);
+            command("RCPT TO:<" + to + ">");
+            out.flush();
+            rcpt = readReply();
+            if (rcpt.code != 250 && rcpt.code != 251) return abort(rcpt);
+            command("DATA");
+            out.flush();
+            dataReply = readReply();
+        }
+
+        if (dataReply.code == 354) {
+            out.write(data);
+            out.flush();
+            Reply done = readReply();
+            if (mail.code != 250) return abort(mail);
+            if (rcpt.code != 250 && rcpt.code != 251) return abort(rcpt);
+            return done.code == 250 ? Result.SENT : abort(done);
+        }
+        if (mail.code != 250) return abort(mail);
+        if (rcpt.code != 250 && rcpt.code != 251) return abort(rcpt);
+        return abort(dataReply);
+    }
+
+    private String mailFrom(String from) {
+        return eightBitMime ? "MAIL FROM:<" + from + "> BODY=8BITMIME" : "MAIL FROM:<" + from + ">";
+    }
+
+    private Result abort(Reply reply) throws IOException {
+        command("RSET");
+        out.flush();
+        readReply();
+        return reply.code >= 400 && reply.code < 500 ? Result.RETRY : Result.REJECTED;
+    }
+
+    /** Encerra com QUIT, ignorando falhas. */
+    @Override
+    public void close() {
+        try {
+            command("QUIT");
+            out.flush();
+            readReply();
+        } catch (IOException ignored) {
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ignored) { }
+        }
+    }
+
+    private void command(String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.US_ASCII));
+        out.write('\r');
+        out.write('\n');
+    }
+
+    private Reply readReply() throws IOException {
+        List<String> lines = new ArrayList<>();
+        while (true) {
+            String line = readLine();
+            if (line.length() < 3) throw new IOException("Resposta SMTP inválida: " + line);
+            lines.add(line.length() > 4 ? line.substring(4) : "");
+            if (line.length() == 3 || line.charAt(3) != '-') {
+                try {
+                    return new Reply(Integer.parseInt(line.substring(0, 3)), lines);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Resposta SMTP inválida: " + line);
+                }
+            }
+        }
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') {
+                int len = sb.length();
+                if (len > 0 && sb.charAt(len - 1) == '\r') sb.setLength(len - 1);
+                return sb.toString();
+            }
+            sb.append((char) c);
+        }
+        throw new EOFException("Conexão SMTP encerrada pelo servidor");
+    }
+
+    private static String localName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "localhost";
+        }
+    }
+
+    /**
+     * Monta o conteúdo do DATA: cabeçalhos, corpo com quebras CRLF, terminando em
+     * {@code CRLF.CRLF}. O corpo vai em 8 bits (com pontos duplicados no início de linha)
+     * só se o servidor aceitar 8BITMIME e nenhuma linha passar de 998 octetos; senão vai
+     * em quoted-printable, que é ASCII e quebra as linhas longas.
+     */
+    static byte[] format(String from, String to, Message m, boolean eightBitMime) {
+        String body = m.getBody(); // Corpos grandes são descomprimidos a cada chamada: uma vez só
+        if (body == null) body = "";
+        StringBuilder sb = new StringBuilder(body.length() + 256);
+        sb.append("From: ").append(from).append("\r\n");
+        sb.append("To: ").append(to).append("\r\n");
+        sb.append("Reply-To: ").append(headerValue(m.getEmail())).append("\r\n");
+        sb.append("Subject: ").append(encodedWord("Contato: " + headerValue(m.getName()))).append("\r\n");
+        sb.append("Date: ").append(DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.of(m.getCreatedAt(), ZoneId.systemDefault()))).append("\r\n");
+        sb.append("MIME-Version: 1.0\r\n");
+        sb.append("Content-Type: text/plain; charset=UTF-8\r\n");
+        boolean raw = eightBitMime && fitsLines(body);
+        sb.append("Content-Transfer-Encoding: ").append(raw ? "8bit" : "quoted-printable").append("\r\n");
+        sb.append("\r\n");
+        if (raw) {
+            appendRaw(sb, body);
+        } else {
+            appendQuotedPrintable(sb, body);
+        }
+        sb.append(".\r\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Nenhuma linha (em UTF-8, com o ponto duplicado) passa de {@link #MAX_LINE} octetos. */
+    private static boolean fitsLines(String body) {
+        int octets = 0;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '\r') continue;
+            if (c == '\n') {
+                octets = 0;
+                continue;
+            }
+            if (octets == 0 && c == '.') octets++;
+            octets += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+            if (octets > MAX_LINE) return false;
+        }
+        return true;
+    }
+
+    private static void appendRaw(StringBuilder sb, String body) {
+        boolean lineStart = true;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '\r') continue;
+            if (c == '\n') {
+                sb.append("\r\n");
+                lineStart = true;
+                continue;
+            }
+            if (lineStart && c == '.') sb.append('.');
+            sb.append(c);
+            lineStart = false;
+        }
+        if (!lineStart) sb.append("\r\n");
+    }
+
+    /**
+     * Quoted-printable sobre os bytes UTF-8: quebras do texto viram CRLF, linhas longas
+     * ganham quebras suaves ({@code =}) e um '.' no início de linha é codificado, o que
+     * dispensa a duplicação de pontos.
+     */
+    private static void appendQuotedPrintable(StringBuilder sb, String body) {
+        byte[] bytes = body.replace("\r", "").getBytes(StandardCharsets.UTF_8);
+        int col = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xFF;
+            if (b == '\n') {
+                sb.append("\r\n");
+                col = 0;
+                continue;
+            }
+            boolean lineEnd = i + 1 == bytes.length || bytes[i + 1] == '\n';
+            boolean literal = (b > ' ' && b < 127 && b != '=')
+                    || ((b == ' ' || b == '\t') && !lineEnd); // espaço no fim da linha seria removido
+            int width = literal ? 1 : 3;
+            if (col + width > QP_LINE - 1) {
+                sb.append("=\r\n");
+                col = 0;
+            }
+            if (literal && !(b == '.' && col == 0)) {
+                sb.append((char) b);
+                col++;
+            } else {
+                sb.append('=').append(HEX[b >> 4]).append(HEX[b & 15]);
+                col += 3;
+            }
+        }
+        if (col > 0) sb.append("\r\n");
+    }
+
+    /** Remove quebras de linha para impedir injeção de cabeçalhos. */
+    private static String headerValue(String s) {
+        return s == null ? "" : s.replace('\r', ' ').replace('\n', ' ');
+    }
+
+    /**
+     * Texto não ASCII como palavras codificadas (RFC 2047), cada uma com caracteres UTF-8
+     * inteiros e no máximo 75 caracteres, separadas por dobra de linha; ASCII vai como está.
+     */
+    private static String encodedWord(String s) {
+        boolean ascii = true;
+        for (int i = 0; i < s.length() && ascii; i++) ascii = s.charAt(i) <= 126;
+        if (ascii) return s;
+        StringBuilder out = new StringBuilder();
+        int start = 0;
+        int bytes = 0;
+        for (int i = 0; i < s.length(); ) {
+            int cp = s.codePointAt(i);
+            int n = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+            if (bytes + n > WORD_BYTES) {
+                appendWord(out, s.substring(start, i));
+                start = i;
+                bytes = 0;
+            }
+            bytes += n;
+            i += Character.charCount(cp);
+        }
+        appendWord(out, s.substring(start));
+        return out.toString();
+    }
+
+    private static void appendWord(StringBuilder out, String part) {
+        if (out.length() > 0) out.append("\r\n "); // Dobra: o espaço entre palavras codificadas é ignorado
+        out.append("=?UTF-8?B?").append(Base64.getEncoder().encodeToString(part.getBytes(StandardCharsets.UTF_8)))
+                .append("?=");
+    }
+
+    private static final class Reply {
+        final int code;
+        final List<String> lines;
+
+        Reply(int code, List<String> lines) {
+            this.code = code;
+            this.lines = lines;
+        }
+
+        @Override
+        public String toString() {
+            return code + " " + String.join(" / ", lines);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.app.service;
+
+/** Configuração do envio SMTP e da política de novas tentativas. */
+public class SmtpSettings {
+    private final String host;
+    private final int port;
+    private final String from;
+    private final String to;
+    private int batchSize = 20;
+    private long retryBaseMillis = 2_000;
+    private long retryMaxMillis = 10 * 60_000;
+    private int maxAttempts = 12;
+    private long idleTimeoutMillis = 30_000;
+    private int socketTimeoutMillis = 15_000;
+
+    public SmtpSettings(String host, int port, String from, String to) {
+        this.host = host;
+        this.port = port;
+        this.from = from;
+        this.to = to;
+    }
+
+    public String getHost() { return host; }
+    public int getPort() { return port; }
+    public String getFrom() { return from; }
+    public String getTo() { return to; }
+
+    /** Mensagens enviadas por sessão antes de reavaliar a fila. */
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = Math.max(1, batchSize); }
+
+    /** Espera antes da primeira nova tentativa; dobra a cada falha até {@link #getRetryMaxMillis()}. */
+    public long getRetryBaseMillis() { return retryBaseMillis; }
+    public void setRetryBaseMillis(long retryBaseMillis) { this.retryBaseMillis = Math.max(1, retryBaseMillis); }
+
+    public long getRetryMaxMillis() { return retryMaxMillis; }
+    public void setRetryMaxMillis(long retryMaxMillis) { this.retryMaxMillis = Math.max(1, retryMaxMillis); }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = Math.max(1, maxAttempts); }
+
+    /** Tempo ocioso até a conexão aberta ser encerrada com QUIT. */
+    public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) { this.idleTimeoutMillis = Math.max(0, idleTimeoutMillis); }
+
+    public int getSocketTimeoutMillis() { return socketTimeoutMillis; }
+    public void setSocketTimeoutMillis(int socketTimeoutMillis) { this.socketTimeoutMillis = Math.max(0, socketTimeoutMillis); }
+}
@@ -0,0 +1,101 @@
+package com.example.app.service;
+
+import com.example.app.model.Message;
+
+import javax.swing.*;
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fila de envios processada fora da EDT.
+ * A EDT só enfileira ({@link #offer}) o que leu do formulário; um worker monta a mensagem,
+ * executa persistência e efeitos colaterais e devolve a mensagem para a EDT apenas para
+ * atualizar a tela.
+ * Com a fila cheia {@code offer} recusa na hora e {@code onDrained} avisa (na EDT)
+ * quando voltar a haver espaço.
+ */
+public final class SubmissionPipeline<T> implements Closeable {
+
+    private static final Runnable POISON = () -> {};
+
+    private final BlockingQueue<Runnable> queue;
+    private final Function<T, Message> process;
+    private final Consumer<Message> onDone;
+    private final Thread worker;
+    private volatile Runnable onDrained = () -> {};
+    private volatile boolean full;
+
+    /**
+     * @param capacity envios aguardando processamento antes de recusar novos
+     * @param process  etapa executada no worker (montagem da mensagem, I/O, histórico);
+     *                 devolve a mensagem processada, ou {@code null} se o envio foi recusado
+     * @param onDone   chamado na EDT com a mensagem devolvida por {@code process}
+     */
+    public SubmissionPipeline(int capacity, Function<T, Message> process, Consumer<Message> onDone) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.process = process;
+        this.onDone = onDone;
+        this.worker = new Thread(this::run, "submission-worker");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public void setOnDrained(Runnable onDrained) {
+        this.onDrained = onDrained != null ? onDrained : () -> {};
+    }
+
+    /** Enfileira sem bloquear; {@code false} se a fila estiver cheia. */
+    public boolean offer(T item) {
+        if (queue.offer(() -> handle(item))) return true;
+        full = true;
+        return false;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private void run() {
+        while (true) {
+            Runnable task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == POISON) return;
+            if (full) {
+                full = false;
+                SwingUtilities.invokeLater(onDrained);
+            }
+            task.run();
+        }
+    }
+
+    private void handle(T item) {
+        Message m;
+        try {
+            m = process.apply(item);
+        } catch (RuntimeException e) {
+            System.err.println("Erro ao processar envio: " + e);
+            return;
+        }
+        if (m != null) SwingUtilities.invokeLater(() -> onDone.accept(m));
+    }
+
+    /** Processa o que já está na fila (até 5 s) e encerra o worker. */
+    @Override
+    public void close() {
+        try {
+            if (queue.offer(POISON, 5, TimeUnit.SECONDS)) {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.app.ui;
+
+import com.example.app.util.Metrics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+
+/**
+ * Exibir → Diagnóstico: contadores e latências do {@link Metrics}, atualizados a cada
+ * segundo enquanto o diálogo estiver aberto. Permite ligar a coleta, zerar os valores e
+ * copiar o relatório.
+ */
+final class DiagnosticsDialog extends JDialog {
+
+    private static final int REFRESH_MILLIS = 1000;
+
+    private static DiagnosticsDialog instance;
+
+    private final JTextArea txtReport = new JTextArea(20, 90);
+    private final JCheckBox chkEnabled = new JCheckBox("Coletar métricas", Metrics.isEnabled());
+    private final Timer refresh = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    private DiagnosticsDialog(Window owner) {
+        super(owner, "Diagnóstico", ModalityType.MODELESS);
+        setDefaultCloseOperation(HIDE_ON_CLOSE);
+
+        txtReport.setEditable(false);
+        txtReport.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JButton btnReset = new JButton("Zerar");
+        JButton btnCopy = new JButton("Copiar");
+        JButton btnClose = new JButton("Fechar");
+        chkEnabled.addActionListener(e -> {
+            Metrics.setEnabled(chkEnabled.isSelected());
+            refresh();
+        });
+        btnReset.addActionListener(e -> {
+            Metrics.reset();
+            refresh();
+        });
+        btnCopy.addActionListener(e -> Toolkit.getDefaultToolkit().getSystemClipboard()
+                .setContents(new StringSelection(Metrics.dump()), null));
+        btnClose.addActionListener(e -> setVisible(false));
+
+        JPanel footer = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        footer.add(chkEnabled);
+        footer.add(btnReset);
+        footer.add(btnCopy);
+        footer.add(btnClose);
+
+        setLayout(new BorderLayout());
+        add(new JScrollPane(txtReport), BorderLayout.CENTER);
+        add(footer, BorderLayout.SOUTH);
+        pack();
+        setLocationRelativeTo(owner);
+
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                refresh.stop();
+            }
+        });
+    }
+
+    /** Abre (ou traz para frente) o diálogo; uma instância por aplicação. */
+    static void show(Component parent) {
+        if (instance == null) {
+            Window owner = parent instanceof Window w ? w : SwingUtilities.getWindowAncestor(parent);
+            instance = new DiagnosticsDialog(owner);
+        }
+        instance.chkEnabled.setSelected(Metrics.isEnabled());
+        instance.refresh();
+        instance.refresh.start();
+        instance.setVisible(true);
+        instance.toFront();
+    }
+
+    private void refresh() {
+        int caret = txtReport.getCaretPosition();
+        txtReport.setText(Metrics.dump());
+        txtReport.setCaretPosition(Math.min(caret, txtReport.getDocument().getLength()));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.app.ui;
+
+import com.example.app.service.MessageExporter;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Botões "Exportar…" (escolhe arquivo e formato) e "Salvar" (JSON em
+ * {@code ~/swing_forms_summary}) com barra de progresso. A exportação roda em um
+ * {@link SwingWorker}; a EDT só atualiza a barra.
+ */
+final class ExportControls {
+
+    /** Exportação executada fora da EDT. */
+    @FunctionalInterface
+    interface Task {
+        void export(Path file, MessageExporter.Format format, MessageExporter.Progress progress) throws IOException;
+    }
+
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Component parent;
+    private final String baseName;
+    private final Task task;
+    private final JButton btnExport = new JButton("Exportar…");
+    private final JButton btnSave = new JButton("Salvar");
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private boolean available = true;
+
+    ExportControls(Component parent, String baseName, Task task) {
+        this.parent = parent;
+        this.baseName = baseName;
+        this.task = task;
+        btnExport.setMnemonic('E');
+        btnSave.setMnemonic('S');
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        btnExport.addActionListener(e -> chooseAndExport());
+        btnSave.addActionListener(e -> save());
+    }
+
+    void addTo(JPanel footer) {
+        footer.add(progressBar);
+        footer.add(btnExport);
+        footer.add(btnSave);
+    }
+
+    /** Habilita os botões quando houver o que exportar. */
+    void setAvailable(boolean available) {
+        this.available = available;
+        if (!progressBar.isVisible()) {
+            btnExport.setEnabled(available);
+            btnSave.setEnabled(available);
+        }
+    }
+
+    private void chooseAndExport() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setAcceptAllFileFilterUsed(false);
+        for (MessageExporter.Format f : MessageExporter.Format.values()) {
+            chooser.addChoosableFileFilter(new FileNameExtensionFilter(f.name() + " (*." + f.getExtension() + ")", f.getExtension()));
+        }
+        chooser.setSelectedFile(new java.io.File(baseName + "." + MessageExporter.Format.JSON.getExtension()));
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) return;
+
+        Path file = chooser.getSelectedFile().toPath();
+        MessageExporter.Format format = MessageExporter.Format.JSON;
+        if (chooser.getFileFilter() instanceof FileNameExtensionFilter filter) {
+            format = MessageExporter.Format.valueOf(filter.getExtensions()[0].toUpperCase(Locale.ROOT));
+        }
+        if (!file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith("." + format.getExtension())) {
+            file = file.resolveSibling(file.getFileName() + "." + format.getExtension());
+        }
+        run(file, format, false);
+    }
+
+    private void save() {
+        Path dir = Path.of(System.getProperty("user.home"), "swing_forms_summary");
+        String name = baseName + "-" + LocalDateTime.now().format(FILE_STAMP) + ".json";
+        run(dir.resolve(name), MessageExporter.Format.JSON, true);
+    }
+
+    private void run(Path file, MessageExporter.Format format, boolean announce) {
+        btnExport.setEnabled(false);
+        btnSave.setEnabled(false);
+        progressBar.setValue(0);
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(true);
+        revalidate();
+
+        SwingWorker<Void, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                task.export(file, format, (done, total) ->
+                        setProgress(total == 0 ? 100 : (int) (done * 100L / total)));
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setVisible(false);
+                btnExport.setEnabled(available);
+                btnSave.setEnabled(available);
+                revalidate();
+                try {
+                    get();
+                    if (announce) {
+                        JOptionPane.showMessageDialog(parent, "Salvo em " + file, "Salvar",
+                                JOptionPane.INFORMATION_MESSAGE);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    System.err.println("Erro ao exportar: " + e.getCause());
+                    JOptionPane.showMessageDialog(parent, "Não foi possível exportar para " + file,
+                            "Exportar", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                progressBar.setIndeterminate(false);
+                progressBar.setValue((Integer) evt.getNewValue());
+            }
+        });
+        worker.execute();
+    }
+
+    private void revalidate() {
+        if (progressBar.getParent() != null) progressBar.getParent().revalidate();
+    }
+}
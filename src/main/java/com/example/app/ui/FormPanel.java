@@ -1,19 +1,29 @@
 package com.example.app.ui;
 
 import com.example.app.model.Message;
+import com.example.app.util.AppEvents;
 import com.example.app.util.IconLoader;
-import com.example.app.util.Validation;
+import com.example.app.util.Metrics;
 
 import javax.swing.*;
 import javax.swing.border.Border;
 import java.awt.*;
 import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
+import java.time.LocalDateTime;
 import java.util.function.Consumer;
 
-/** Tela 1: Formulário com validação em tempo real. */
+/**
+ * Tela 1: Formulário com validação em tempo real.
+ * Cada edição revalida só o campo alterado ({@link ValidationEngine}); o botão Enviar
+ * acompanha a máscara de campos válidos.
+ */
 public class FormPanel extends JPanel {
 
+    private static final int VALIDATION_DELAY_MILLIS = 150;
+    private static final Metrics.Timer SUBMIT_TIME = Metrics.timer("form.submit");
+    private static final Metrics.Counter INVALID = Metrics.counter("form.submit.invalid");
+
     private final JTextField txtName = new JTextField(20);
     private final JTextField txtEmail = new JTextField(20);
     private final JTextArea  txtBody = new JTextArea(6, 20);
@@ -22,7 +32,14 @@ public class FormPanel extends JPanel {
     private final JLabel lblEmailError = new JLabel();
     private final JLabel lblBodyError = new JLabel();
 
-    private Consumer<Message> onSubmit = m -> {};
+    private Consumer<Draft> onSubmit = d -> {};
+    private final JLabel lblNotice = new JLabel();
+    private ValidationEngine validation;
+    private int fieldName;
+    private int fieldEmail;
+    private int fieldBody;
+    private int touchedMask; // campos que já perderam o foco
+    private boolean sending;
 
     // Bordas para indicar estado de validação
     private final Border normalBorder = UIManager.getBorder("TextField.border");
@@ -43,74 +60,76 @@ public class FormPanel extends JPanel {
         lblEmailError.setFont(lblEmailError.getFont().deriveFont(Font.PLAIN, 11f));
         lblBodyError.setFont(lblBodyError.getFont().deriveFont(Font.PLAIN, 11f));
 
-        // InputVerifier para Nome
-        txtName.setInputVerifier(new InputVerifier() {
-            @Override
-            public boolean verify(JComponent input) {
-                String text = ((JTextField) input).getText().trim();
-                boolean valid = Validation.notBlank(text);
-                updateFieldState(txtName, lblNameError, valid, "Nome é obrigatório");
-                return true; // Sempre permite mudança de foco
-            }
-        });
-
-        // InputVerifier para Email
-        txtEmail.setInputVerifier(new InputVerifier() {
-            @Override
-            public boolean verify(JComponent input) {
-                String text = ((JTextField) input).getText().trim();
-                boolean valid = Validation.isEmail(text);
-                updateFieldState(txtEmail, lblEmailError, valid, "E-mail inválido");
-                return true;
-            }
-        });
+        // Validação a cada edição, só do campo alterado
+        validation = new ValidationEngine(VALIDATION_DELAY_MILLIS, this::validityChanged);
+        fieldName = validation.add(txtName, ValidationEngine.NOT_BLANK);
+        fieldEmail = validation.add(txtEmail, ValidationEngine.EMAIL);
+        fieldBody = validation.add(txtBody, ValidationEngine.NOT_BLANK);
 
-        // FocusListener para TextArea (não suporta InputVerifier)
-        txtBody.addFocusListener(new FocusAdapter() {
+        // O erro só aparece depois que o usuário passou pelo campo
+        FocusAdapter touch = new FocusAdapter() {
             @Override
             public void focusLost(FocusEvent e) {
-                String text = txtBody.getText().trim();
-                boolean valid = Validation.notBlank(text);
-                updateTextAreaState(valid);
+                touch(field(e.getComponent()));
             }
-        });
+        };
+        txtName.addFocusListener(touch);
+        txtEmail.addFocusListener(touch);
+        txtBody.addFocusListener(touch);
     }
 
-    private void updateFieldState(JTextField field, JLabel errorLabel, boolean valid, String errorMsg) {
-        SwingUtilities.invokeLater(() -> {
-            if (valid) {
-                field.setBorder(normalBorder);
-                errorLabel.setText("");
-            } else {
-                field.setBorder(errorBorder);
-                errorLabel.setText(errorMsg);
-            }
-            updateSubmitButton();
-        });
+    private int field(Component c) {
+        return c == txtName ? fieldName : c == txtEmail ? fieldEmail : fieldBody;
     }
 
-    private void updateTextAreaState(boolean valid) {
-        SwingUtilities.invokeLater(() -> {
-            if (valid) {
-                txtBody.setBorder(normalBorder);
-                lblBodyError.setText("");
-            } else {
-                txtBody.setBorder(errorBorder);
-                lblBodyError.setText("Mensagem é obrigatória");
-            }
-            updateSubmitButton();
-        });
+    /** Marca o campo como visitado e mostra o estado atual dele. */
+    private void touch(int field) {
+        validation.validateNow();
+        touchedMask |= 1 << field;
+        showFieldState(field, validation.isValid(field));
+    }
+
+    private void validityChanged(int field, boolean valid) {
+        if ((touchedMask & (1 << field)) != 0) showFieldState(field, valid);
+        updateSubmitButton();
+    }
+
+    private void showFieldState(int field, boolean valid) {
+        JComponent input;
+        JLabel errorLabel;
+        String errorMsg;
+        if (field == fieldName) {
+            input = txtName;
+            errorLabel = lblNameError;
+            errorMsg = "Nome é obrigatório";
+        } else if (field == fieldEmail) {
+            input = txtEmail;
+            errorLabel = lblEmailError;
+            errorMsg = "E-mail inválido";
+        } else {
+            input = txtBody;
+            errorLabel = lblBodyError;
+            errorMsg = "Mensagem é obrigatória";
+        }
+        if (valid) {
+            input.setBorder(normalBorder);
+            errorLabel.setText("");
+        } else {
+            input.setBorder(errorBorder);
+            errorLabel.setText(errorMsg);
+        }
     }
 
     private void updateSubmitButton() {
-        boolean canSubmit = isFormValid();
+        boolean canSubmit = !sending && validation.isAllValid();
         btnSend.setEnabled(canSubmit);
     }
 
-    private boolean isFormValid() {
-        return Validation.notBlank(txtName.getText().trim()) &&
-                Validation.isEmail(txtEmail.getText().trim()) &&
-                Validation.notBlank(txtBody.getText().trim());
+    /** Estado "Enviando…": bloqueia novos envios enquanto a fila de envio está cheia. */
+    public void setSending(boolean sending) {
+        this.sending = sending;
+        btnSend.setText(sending ? "Enviando…" : "Enviar");
+        updateSubmitButton();
     }
 
     private void setupUI() {
@@ -157,6 +176,8 @@ public class FormPanel extends JPanel {
         btnSend.setToolTipText("Envia o formulário (Ctrl+Enter)");
         btnSend.setMnemonic('E');
         btnSend.setEnabled(false); // Inicia desabilitado
+        lblNotice.setForeground(new Color(191, 96, 0));
+        footer.add(lblNotice);
         footer.add(btnSend);
 
         // Ação do botão
@@ -175,20 +196,46 @@ public class FormPanel extends JPanel {
         add(footer, BorderLayout.SOUTH);
     }
 
-    public void setOnSubmit(java.util.function.Consumer<Message> onSubmit) {
-        this.onSubmit = onSubmit != null ? onSubmit : m -> {};
+    /**
+     * Recebe, na EDT, os campos lidos no clique em Enviar. A mensagem (que pode comprimir
+     * o corpo) deve ser montada fora da EDT com {@link Draft#toMessage()}.
+     */
+    public void setOnSubmit(Consumer<Draft> onSubmit) {
+        this.onSubmit = onSubmit != null ? onSubmit : d -> {};
+    }
+
+    /**
+     * Devolve ao campo o texto de um envio recusado depois do clique, se o usuário ainda
+     * não começou a escrever outra mensagem.
+     */
+    public void restoreBody(String body) {
+        if (!txtBody.getText().isEmpty()) return;
+        txtBody.setText(body);
+        touch(fieldBody);
+    }
+
+    /** Aviso ao lado do botão Enviar; {@code null} ou vazio apaga. */
+    public void showNotice(String text) {
+        lblNotice.setText(text == null ? "" : text);
     }
 
     public void prefillName(String name) {
         txtName.setText(name == null ? "" : name);
-        // Força validação do campo pré-preenchido
-        SwingUtilities.invokeLater(() -> {
-            txtName.getInputVerifier().verify(txtName);
-        });
+        // Mostra já o estado do campo pré-preenchido
+        touch(fieldName);
     }
 
     private void trySubmit() {
-        if (!isFormValid()) {
+        long start = Metrics.start();
+        AppEvents.Submit event = new AppEvents.Submit();
+        event.begin();
+        event.stage = "form";
+        validation.validateNow();
+        boolean valid = validation.isAllValid();
+        event.valid = valid;
+        if (!valid) {
+            INVALID.increment();
+            event.commit();
             return; // Não deveria acontecer pois botão está desabilitado
         }
 
@@ -196,11 +243,35 @@ public class FormPanel extends JPanel {
         String email = txtEmail.getText().trim();
         String body = txtBody.getText().trim();
 
-        Message m = new Message(name, email, body);
-        onSubmit.accept(m);
+        showNotice(null);
+        onSubmit.accept(new Draft(name, email, body, LocalDateTime.now()));
 
         // Limpeza dos campos
         txtBody.setText("");
-        updateTextAreaState(false); // Força revalidação
+        touch(fieldBody); // Força revalidação
+        event.commit();
+        SUBMIT_TIME.record(start);
+    }
+
+    /** Campos de um envio, lidos na EDT; a {@link Message} é montada depois, no worker. */
+    public static final class Draft {
+        private final String name;
+        private final String email;
+        private final String body;
+        private final LocalDateTime createdAt;
+
+        Draft(String name, String email, String body, LocalDateTime createdAt) {
+            this.name = name;
+            this.email = email;
+            this.body = body;
+            this.createdAt = createdAt;
+        }
+
+        public String getBody() { return body; }
+
+        /** Monta a mensagem; corpos grandes são comprimidos aqui. */
+        public Message toMessage() {
+            return new Message(name, email, body, createdAt);
+        }
     }
 }
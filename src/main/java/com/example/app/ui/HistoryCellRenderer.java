@@ -0,0 +1,56 @@
+package com.example.app.ui;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+
+/**
+ * Renderer das células do histórico que não aloca ao pintar: cores vêm da tabela ou
+ * são lidas uma vez em {@link #updateUI()}, o texto já chega formatado e, como no
+ * {@code DefaultTableCellRenderer}, invalidações e eventos de propriedade são ignorados
+ * (o componente só é "carimbado" pela tabela). HTML fica desativado: nome e mensagem
+ * vêm do usuário.
+ */
+final class HistoryCellRenderer extends JLabel implements TableCellRenderer {
+    private static final Border PADDING = BorderFactory.createEmptyBorder(0, 4, 0, 4);
+
+    private Color alternate;
+
+    HistoryCellRenderer() {
+        setOpaque(true);
+        setBorder(PADDING);
+        putClientProperty("html.disable", Boolean.TRUE);
+    }
+
+    @Override
+    public void updateUI() {
+        super.updateUI();
+        alternate = UIManager.getColor("Table.alternateRowColor");
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        if (isSelected) {
+            setForeground(table.getSelectionForeground());
+            setBackground(table.getSelectionBackground());
+        } else {
+            setForeground(table.getForeground());
+            setBackground(alternate != null && (row & 1) == 1 ? alternate : table.getBackground());
+        }
+        setFont(table.getFont());
+        setText(value instanceof String s ? s : "");
+        return this;
+    }
+
+    // Sem efeito para um renderer (mesma abordagem do DefaultTableCellRenderer)
+    @Override public void invalidate() { }
+    @Override public void validate() { }
+    @Override public void revalidate() { }
+    @Override public void repaint(long tm, int x, int y, int width, int height) { }
+    @Override public void repaint(Rectangle r) { }
+    @Override public void repaint() { }
+    @Override protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) { }
+    @Override public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) { }
+}
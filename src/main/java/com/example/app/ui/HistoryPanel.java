@@ -1,32 +1,59 @@
 package com.example.app.ui;
 
+import com.example.app.model.HistoryEvent;
 import com.example.app.model.Message;
 import com.example.app.model.MessageHistory;
+import com.example.app.service.MessageExporter;
 import com.example.app.util.IconLoader;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+import java.util.function.UnaryOperator;
 
 /** Tela 3: Histórico de mensagens enviadas. */
 public class HistoryPanel extends JPanel {
 
+    /** Acima disso filtro e ordenação são calculados fora da EDT. */
+    private static final int SYNC_ORDER_LIMIT = 20_000;
+    private static final ExecutorService SORTER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "history-sort");
+        t.setDaemon(true);
+        return t;
+    });
+
     private final MessageHistory history;
     private final MessageTableModel tableModel;
     private final JTable table;
     private final JButton btnBack = new JButton("Voltar");
     private final JButton btnClear = new JButton("Limpar Histórico");
     private final JLabel lblCount = new JLabel("0 mensagens");
+    private final JTextField txtFilter = new JTextField(16);
+    private final AtomicBoolean syncPending = new AtomicBoolean();
+    private final ExportControls export;
+    private final HistorySortKeys sortKeys;
 
     public HistoryPanel(MessageHistory history) {
         super(new BorderLayout(10, 10));
         this.history = history;
+        this.sortKeys = new HistorySortKeys(history, SORTER);
         this.tableModel = new MessageTableModel();
         this.table = new JTable(tableModel);
+        this.export = new ExportControls(this, "historico",
+                (file, format, progress) -> MessageExporter.exportHistory(history.snapshot(), format, file, progress));
         setupUI();
+        history.addListener(this::onHistoryChanged);
     }
 
     private void setupUI() {
@@ -39,10 +66,24 @@ public class HistoryPanel extends JPanel {
         header.add(title);
         header.add(Box.createHorizontalStrut(20));
         header.add(lblCount);
+        header.add(Box.createHorizontalStrut(20));
+        header.add(new JLabel("Filtrar:"));
+        header.add(txtFilter);
+        txtFilter.setToolTipText("Palavras do nome ou da mensagem (início de palavra, todas precisam aparecer)");
 
         // Tabela
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         table.setRowHeight(24);
+        table.setDefaultRenderer(Object.class, new HistoryCellRenderer());
+        table.getTableHeader().setReorderingAllowed(false);
+        table.getTableHeader().setToolTipText("Clique em Nome, E-mail ou Data/Hora para ordenar");
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.columnAtPoint(e.getPoint());
+                if (column >= 0) toggleSort(table.convertColumnIndexToModel(column));
+            }
+        });
         table.getColumnModel().getColumn(0).setPreferredWidth(150); // Nome
         table.getColumnModel().getColumn(1).setPreferredWidth(200); // Email
         table.getColumnModel().getColumn(2).setPreferredWidth(120); // Data
@@ -56,11 +97,17 @@ public class HistoryPanel extends JPanel {
         btnBack.setMnemonic('V');
         btnClear.setMnemonic('L');
         btnClear.setForeground(Color.RED.darker());
+        export.addTo(footer);
         footer.add(btnClear);
         footer.add(btnBack);
 
         // Ações
         btnClear.addActionListener(e -> clearHistory());
+        txtFilter.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void removeUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void changedUpdate(DocumentEvent e) { applyFilter(); }
+        });
 
         add(header, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
@@ -68,15 +115,51 @@ public class HistoryPanel extends JPanel {
     }
 
     public void refreshHistory() {
-        SwingUtilities.invokeLater(() -> {
-            tableModel.fireTableDataChanged();
-            updateCountLabel();
-        });
+        SwingUtilities.invokeLater(this::syncWithHistory);
+    }
+
+    /** Chamado dentro do lock do histórico: apenas agenda uma sincronização na EDT. */
+    private void onHistoryChanged(HistoryEvent event) {
+        if (syncPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::syncWithHistory);
+        }
+    }
+
+    private void syncWithHistory() {
+        syncPending.set(false);
+        tableModel.sync();
+        updateCountLabel();
+    }
+
+    private void applyFilter() {
+        tableModel.setFilter(txtFilter.getText());
+        updateCountLabel();
+    }
+
+    /** Cada clique alterna: crescente, decrescente e de volta à ordem de chegada. */
+    private void toggleSort(int column) {
+        if (!HistorySortKeys.isSortable(column)) return;
+        if (tableModel.sortColumn != column) {
+            tableModel.setSort(column, true);
+        } else if (tableModel.ascending) {
+            tableModel.setSort(column, false);
+        } else {
+            tableModel.setSort(-1, true);
+        }
+        for (int i = 0; i < tableModel.getColumnCount(); i++) {
+            String arrow = i != tableModel.sortColumn ? "" : tableModel.ascending ? " ▲" : " ▼";
+            table.getColumnModel().getColumn(table.convertColumnIndexToView(i))
+                    .setHeaderValue(tableModel.getColumnName(i) + arrow);
+        }
+        table.getTableHeader().repaint();
     }
 
     private void updateCountLabel() {
-        int count = history.getMessageCount();
-        lblCount.setText(count + (count == 1 ? " mensagem" : " mensagens"));
+        int total = tableModel.getTotalCount();
+        String text = total + (total == 1 ? " mensagem" : " mensagens");
+        if (tableModel.isFiltered()) text = tableModel.getRowCount() + " de " + text;
+        lblCount.setText(text);
+        export.setAvailable(total > 0);
     }
 
     private void clearHistory() {
@@ -97,14 +180,193 @@ public class HistoryPanel extends JPanel {
         btnBack.addActionListener(al);
     }
 
-    // Modelo da tabela
+    // Modelo da tabela: mantém um snapshot do histórico até a versão mudar
     private class MessageTableModel extends AbstractTableModel {
         private final String[] columns = {"Nome", "E-mail", "Data/Hora", "Mensagem"};
-        private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        private final HistoryRow.Cache rows = new HistoryRow.Cache(1024);
+        private final LongFunction<Message> lookup = history::getBySeq;
+        private MessageHistory.Snapshot view = history.snapshot();
+        private int rowCount = view.size();
+        private String filter = "";
+        private int sortColumn = -1;
+        private boolean ascending = true;
+        private long[] order;   // sequências na ordem exibida; null = mais recentes primeiro
+        private volatile int generation; // descarta pedidos já substituídos
+        private CompletableFuture<long[]> latest = CompletableFuture.completedFuture(null); // última ordem pedida
+
+        void setFilter(String query) {
+            String q = query == null ? "" : query.trim();
+            if (q.equals(filter)) return;
+            filter = q;
+            requestOrder();
+        }
+
+        void setSort(int column, boolean ascending) {
+            this.sortColumn = column;
+            this.ascending = ascending;
+            requestOrder();
+        }
+
+        boolean isFiltered() {
+            return !filter.isEmpty();
+        }
+
+        int getTotalCount() {
+            return rowCount;
+        }
+
+        /** Recalcula a ordem exibida do zero: mudou o filtro, a coluna ou o histórico foi limpo. */
+        private void requestOrder() {
+            int request = ++generation;
+            if (filter.isEmpty() && sortColumn < 0) {
+                latest = CompletableFuture.completedFuture(null);
+                applyOrder(request, null);
+                return;
+            }
+            String f = filter;
+            int column = sortColumn;
+            boolean asc = ascending;
+            MessageHistory.Snapshot snapshot = view;
+            schedule(request, snapshot, previous -> request != generation ? null : computeOrder(snapshot, f, column, asc));
+        }
+
+        /**
+         * Acompanha novas mensagens e descartes sem reordenar tudo: tira da ordem anterior
+         * as descartadas e intercala só as novas.
+         */
+        private void updateOrder(MessageHistory.Snapshot prev, MessageHistory.Snapshot next) {
+            int request = ++generation;
+            String f = filter;
+            int column = sortColumn;
+            boolean asc = ascending;
+            long from = prev.getEndSeq();
+            // Sem a ordem anterior (pedido descartado ou com erro) recalcula do zero
+            schedule(request, next, previous -> previous == null
+                    ? computeOrder(next, f, column, asc)
+                    : mergeOrder(previous, from, next, f, column, asc));
+        }
+
+        /**
+         * Até {@link #SYNC_ORDER_LIMIT} linhas, com as chaves prontas e sem pedido em
+         * andamento, é feito aqui mesmo; senão roda em segundo plano depois do pedido
+         * anterior e a tabela continua mostrando a ordem atual até o resultado ser trocado
+         * de uma vez na EDT.
+         */
+        private void schedule(int request, MessageHistory.Snapshot snapshot, UnaryOperator<long[]> step) {
+            CompletableFuture<long[]> previous = latest;
+            if (snapshot.size() <= SYNC_ORDER_LIMIT && sortKeys.isReady() && previous.isDone()) {
+                long[] result = step.apply(previous.isCompletedExceptionally() ? null : previous.join());
+                latest = CompletableFuture.completedFuture(result);
+                applyOrder(request, result);
+                return;
+            }
+            latest = previous.handleAsync((result, error) -> step.apply(error == null ? result : null), SORTER);
+            latest.thenAccept(result -> SwingUtilities.invokeLater(() -> applyOrder(request, result)));
+        }
+
+        private long[] computeOrder(MessageHistory.Snapshot snapshot, String f, int column, boolean asc) {
+            long first = snapshot.getFirstSeq();
+            long end = snapshot.getEndSeq();
+            long[] seqs = f.isEmpty() ? range(first, end) : within(history.searchSeqs(f), first, end);
+            if (column >= 0) return sortKeys.sort(seqs, column, asc);
+            reverse(seqs); // Mais recentes primeiro
+            return seqs;
+        }
+
+        private long[] mergeOrder(long[] previous, long from, MessageHistory.Snapshot next,
+                                  String f, int column, boolean asc) {
+            long first = next.getFirstSeq();
+            long end = next.getEndSeq();
+            long[] kept = previous;
+            int live = 0;
+            for (long seq : previous) if (seq >= first) live++;
+            if (live < previous.length) {
+                kept = new long[live];
+                int k = 0;
+                for (long seq : previous) if (seq >= first) kept[k++] = seq;
+            }
+            from = Math.max(from, first);
+            long[] added = f.isEmpty() ? range(from, end) : within(history.searchSeqs(f), from, end);
+            if (added.length == 0) return kept;
+            if (column >= 0) return sortKeys.merge(kept, added, column, asc);
+            // Ordem de chegada, mais recentes primeiro: as novas vão no topo
+            reverse(added);
+            long[] out = Arrays.copyOf(added, added.length + kept.length);
+            System.arraycopy(kept, 0, out, added.length, kept.length);
+            return out;
+        }
+
+        private static long[] range(long from, long to) {
+            long[] seqs = new long[(int) Math.max(0, to - from)];
+            for (int i = 0; i < seqs.length; i++) seqs[i] = from + i;
+            return seqs;
+        }
+
+        /** Sequências (crescentes) da busca dentro de [from, to); consulta sem termos casa com todas. */
+        private static long[] within(long[] seqs, long from, long to) {
+            if (seqs == null) return range(from, to);
+            int lo = Arrays.binarySearch(seqs, from);
+            int hi = Arrays.binarySearch(seqs, to);
+            lo = lo < 0 ? -lo - 1 : lo;
+            hi = hi < 0 ? -hi - 1 : hi;
+            return Arrays.copyOfRange(seqs, lo, Math.max(lo, hi));
+        }
+
+        private static void reverse(long[] seqs) {
+            for (int i = 0, j = seqs.length - 1; i < j; i++, j--) {
+                long t = seqs[i];
+                seqs[i] = seqs[j];
+                seqs[j] = t;
+            }
+        }
+
+        private void applyOrder(int request, long[] newOrder) {
+            if (request != generation) return;
+            order = newOrder;
+            rowCount = view.size();
+            fireTableDataChanged();
+            updateCountLabel();
+        }
+
+        /** Aplica as diferenças entre o snapshot atual e o novo como eventos incrementais. */
+        void sync() {
+            MessageHistory.Snapshot next = history.snapshot();
+            MessageHistory.Snapshot prev = view;
+            if (next.getVersion() == prev.getVersion()) return;
+            view = next;
+            boolean reset = next.getEpoch() != prev.getEpoch() || next.getFirstSeq() >= prev.getEndSeq();
+
+            if (!filter.isEmpty() || sortColumn >= 0) {
+                if (reset) requestOrder();
+                else updateOrder(prev, next);
+                return;
+            }
+
+            if (reset) {
+                rowCount = next.size();
+                fireTableDataChanged();
+                return;
+            }
+
+            // Descartadas são as mais antigas, no fim da tabela
+            int evicted = (int) (next.getFirstSeq() - prev.getFirstSeq());
+            if (evicted > 0) {
+                int oldRows = rowCount;
+                rowCount = oldRows - evicted;
+                fireTableRowsDeleted(rowCount, oldRows - 1);
+            }
+
+            // Novas entram no topo
+            int added = (int) (next.getEndSeq() - prev.getEndSeq());
+            if (added > 0) {
+                rowCount = next.size();
+                fireTableRowsInserted(0, added - 1);
+            }
+        }
 
         @Override
         public int getRowCount() {
-            return history.getMessageCount();
+            return order != null ? order.length : rowCount;
         }
 
         @Override
@@ -117,22 +379,19 @@ public class HistoryPanel extends JPanel {
             return columns[column];
         }
 
+        /** Texto da célula, do cache de linhas formatadas (mais recentes primeiro). */
         @Override
         public Object getValueAt(int rowIndex, int columnIndex) {
-            List<Message> messages = history.getAllMessages();
-            if (rowIndex >= messages.size()) return "";
-
-            Message msg = messages.get(messages.size() - 1 - rowIndex); // Mais recentes primeiro
-
-            return switch (columnIndex) {
-                case 0 -> msg.getName();
-                case 1 -> msg.getEmail();
-                case 2 -> msg.getCreatedAt().format(formatter);
-                case 3 -> msg.getBody().length() > 50 ?
-                        msg.getBody().substring(0, 47) + "..." :
-                        msg.getBody();
-                default -> "";
-            };
+            long seq;
+            if (order != null) {
+                if (rowIndex >= order.length) return "";
+                seq = order[rowIndex];
+            } else {
+                if (rowIndex >= view.size()) return "";
+                seq = view.getEndSeq() - 1 - rowIndex;
+            }
+            HistoryRow row = rows.get(seq, lookup);
+            return row == null ? "" : row.column(columnIndex);
         }
     }
 }
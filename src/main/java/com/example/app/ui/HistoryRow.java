@@ -0,0 +1,65 @@
+package com.example.app.ui;
+
+import com.example.app.model.Message;
+import com.example.app.util.DateFormats;
+
+import java.util.function.LongFunction;
+
+/**
+ * Texto já formatado de uma linha da tabela do histórico. Criado uma vez por mensagem
+ * e guardado em {@link Cache} pela sequência, para que pintar não formate nem aloque.
+ */
+final class HistoryRow {
+    private final String name;
+    private final String email;
+    private final String date;
+    private final String preview;
+
+    private HistoryRow(Message m) {
+        this.name = m.getName();
+        this.email = m.getEmail();
+        this.date = m.getCreatedAt().format(DateFormats.DISPLAY);
+        this.preview = m.getPreview(); // Nunca descomprime o corpo
+    }
+
+    String column(int column) {
+        return switch (column) {
+            case 0 -> name;
+            case 1 -> email;
+            case 2 -> date;
+            case 3 -> preview;
+            default -> "";
+        };
+    }
+
+    /**
+     * Cache de mapeamento direto sequência → linha: cada sequência tem uma única posição
+     * possível, então consulta e troca são O(1) e sem alocação. O tamanho só precisa
+     * cobrir algumas telas de linhas visíveis.
+     */
+    static final class Cache {
+        private final long[] seqs;
+        private final HistoryRow[] rows;
+        private final int mask;
+
+        Cache(int capacity) {
+            int size = Integer.highestOneBit(Math.max(16, capacity - 1) << 1);
+            this.seqs = new long[size];
+            this.rows = new HistoryRow[size];
+            this.mask = size - 1;
+        }
+
+        /** Linha da mensagem {@code seq}; {@code message} é consultada só se não estiver em cache. */
+        HistoryRow get(long seq, LongFunction<Message> message) {
+            int slot = (int) seq & mask;
+            HistoryRow row = rows[slot];
+            if (row != null && seqs[slot] == seq) return row;
+            Message m = message.apply(seq);
+            if (m == null) return null;
+            row = new HistoryRow(m);
+            rows[slot] = row;
+            seqs[slot] = seq;
+            return row;
+        }
+    }
+}
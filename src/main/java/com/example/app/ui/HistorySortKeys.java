@@ -0,0 +1,259 @@
+package com.example.app.ui;
+
+import com.example.app.model.HistoryEvent;
+import com.example.app.model.HistoryListener;
+import com.example.app.model.Message;
+import com.example.app.model.MessageHistory;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Chaves de ordenação do histórico (nome e e-mail normalizados, data em millis),
+ * calculadas uma vez quando a mensagem chega e guardadas por sequência em arrays
+ * circulares. A ordenação copia só as chaves das linhas pedidas e ordena um
+ * {@code long[]} com {@link Arrays#parallelSort(long[])}: nada de comparar textos
+ * formatados na EDT. As chaves das mensagens que já estavam no histórico são
+ * calculadas em segundo plano; até lá {@link #isReady()} é falso.
+ */
+final class HistorySortKeys implements HistoryListener {
+    static final int NAME = 0;
+    static final int EMAIL = 1;
+    static final int DATE = 2;
+
+    private static final int NORMALIZED_CACHE_LIMIT = 10_000;
+
+    private String[] names = new String[16];
+    private String[] emails = new String[16];
+    private long[] dates = new long[16];
+    private long first; // janela de sequências [first, end)
+    private long end;
+    private final Map<String, String> normalized = new HashMap<>(); // remetentes se repetem
+
+    private volatile boolean ready;
+
+    /**
+     * Passa a acompanhar o histórico e preenche, em {@code loader}, as chaves das mensagens
+     * que já estão nele: com milhões de mensagens isso não pode rodar na EDT.
+     */
+    HistorySortKeys(MessageHistory history, Executor loader) {
+        first = end = history.snapshot().getFirstSeq();
+        history.addListener(this);
+        // Inclui o que chegou antes do registro do listener; o que vier depois chega pelo evento
+        MessageHistory.Snapshot snapshot = history.snapshot();
+        loader.execute(() -> {
+            backfill(history, snapshot);
+            ready = true;
+        });
+    }
+
+    /** Falso enquanto as chaves das mensagens anteriores à criação ainda estão sendo calculadas. */
+    boolean isReady() {
+        return ready;
+    }
+
+    private void backfill(MessageHistory history, MessageHistory.Snapshot snapshot) {
+        for (long seq = snapshot.getFirstSeq(); seq < snapshot.getEndSeq(); seq++) {
+            Message m = history.getBySeq(seq);
+            if (m == null) continue;
+            synchronized (this) {
+                if (seq < first) continue;
+                extendTo(seq);
+                put(seq, m);
+            }
+        }
+    }
+
+    static boolean isSortable(int column) {
+        return column == NAME || column == EMAIL || column == DATE;
+    }
+
+    @Override
+    public synchronized void historyChanged(HistoryEvent event) {
+        long seq = event.getSeq();
+        switch (event.getType()) {
+            case ADDED -> {
+                if (seq < first) return;
+                extendTo(seq);
+                put(seq, event.getMessage());
+            }
+            case EVICTED -> {
+                first = Math.max(first, seq + 1);
+                end = Math.max(end, first);
+            }
+            case CLEARED -> {
+                Arrays.fill(names, null);
+                Arrays.fill(emails, null);
+                first = end = seq;
+            }
+        }
+    }
+
+    /** Inclui {@code seq} na janela, limpando as posições puladas. */
+    private void extendTo(long seq) {
+        while (end <= seq) {
+            if (end - first == names.length) grow();
+            int slot = (int) (end & (names.length - 1));
+            names[slot] = null;
+            emails[slot] = null;
+            end++;
+        }
+    }
+
+    private void put(long seq, Message m) {
+        int slot = (int) (seq & (names.length - 1));
+        names[slot] = normalize(m.getName(), true);
+        emails[slot] = normalize(m.getEmail(), false);
+        dates[slot] = m.getCreatedAtMillis();
+    }
+
+    private void grow() {
+        int size = names.length * 2;
+        String[] newNames = new String[size];
+        String[] newEmails = new String[size];
+        long[] newDates = new long[size];
+        for (long seq = first; seq < end; seq++) {
+            int from = (int) (seq & (names.length - 1));
+            int to = (int) (seq & (size - 1));
+            newNames[to] = names[from];
+            newEmails[to] = emails[from];
+            newDates[to] = dates[from];
+        }
+        names = newNames;
+        emails = newEmails;
+        dates = newDates;
+    }
+
+    /** Minúsculas e, para nomes, sem acentos; resultados reaproveitados por remetente. */
+    private String normalize(String s, boolean foldAccents) {
+        if (s == null) return "";
+        String cached = normalized.get(s);
+        if (cached != null) return cached;
+        String key = s.toLowerCase(Locale.ROOT);
+        if (foldAccents) {
+            key = Normalizer.normalize(key, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        }
+        if (normalized.size() >= NORMALIZED_CACHE_LIMIT) normalized.clear();
+        normalized.put(s, key);
+        return key;
+    }
+
+    /**
+     * Ordena {@code seqs} (crescentes) pela coluna. Empates mantêm a ordem de chegada;
+     * na ordem decrescente, as mais recentes primeiro.
+     */
+    long[] sort(long[] seqs, int column, boolean ascending) {
+        // (chave << bits) | índice: um único sort de primitivos
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(1, seqs.length - 1));
+        long[] packed = column == DATE ? packDates(seqs, bits) : packTexts(seqs, column == NAME, bits);
+        Arrays.parallelSort(packed);
+        long mask = (1L << bits) - 1;
+        long[] out = new long[seqs.length];
+        for (int i = 0; i < packed.length; i++) {
+            int index = (int) (packed[ascending ? i : packed.length - 1 - i] & mask);
+            out[i] = seqs[index];
+        }
+        return out;
+    }
+
+    /**
+     * Inclui {@code added} (crescentes e mais novas que todas as de {@code sorted}) numa
+     * ordem já calculada por {@link #sort}: ordena só as novas e acha a posição de cada
+     * uma por busca binária, sem reordenar o resto.
+     */
+    long[] merge(long[] sorted, long[] added, int column, boolean ascending) {
+        long[] incoming = sort(added, column, ascending);
+        long[] out = new long[sorted.length + incoming.length];
+        int from = 0;
+        int k = 0;
+        synchronized (this) {
+            for (long seq : incoming) {
+                // Primeira posição que vem depois de seq; as novas estão na mesma ordem, então só avança
+                int lo = from;
+                int hi = sorted.length;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (compare(sorted[mid], seq, column, ascending) > 0) hi = mid;
+                    else lo = mid + 1;
+                }
+                System.arraycopy(sorted, from, out, k, lo - from);
+                k += lo - from;
+                from = lo;
+                out[k++] = seq;
+            }
+        }
+        System.arraycopy(sorted, from, out, k, sorted.length - from);
+        return out;
+    }
+
+    /** Mesma ordem de {@link #sort}: chave e, no empate, ordem de chegada. */
+    private int compare(long a, long b, int column, boolean ascending) {
+        int c = column == DATE ? Long.compare(date(a), date(b)) : text(a, column == NAME).compareTo(text(b, column == NAME));
+        if (c == 0) c = Long.compare(a, b);
+        return ascending ? c : -c;
+    }
+
+    private String text(long seq, boolean byName) {
+        String[] source = byName ? names : emails;
+        String k = seq >= first && seq < end ? source[(int) (seq & (source.length - 1))] : null;
+        return k == null ? "" : k;
+    }
+
+    private long date(long seq) {
+        return seq >= first && seq < end ? dates[(int) (seq & (dates.length - 1))] : 0;
+    }
+
+    /** Chave = posição do texto entre os textos distintos das linhas. */
+    private long[] packTexts(long[] seqs, boolean byName, int bits) {
+        String[] keys = new String[seqs.length];
+        synchronized (this) {
+            for (int i = 0; i < seqs.length; i++) keys[i] = text(seqs[i], byName);
+        }
+        Map<String, Integer> ranks = new HashMap<>();
+        for (String k : keys) ranks.putIfAbsent(k, 0);
+        String[] distinct = ranks.keySet().toArray(new String[0]);
+        Arrays.parallelSort(distinct);
+        for (int r = 0; r < distinct.length; r++) ranks.put(distinct[r], r);
+
+        long[] packed = new long[seqs.length];
+        for (int i = 0; i < seqs.length; i++) packed[i] = ((long) ranks.get(keys[i]) << bits) | i;
+        return packed;
+    }
+
+    /**
+     * Chave = millis menos o menor deles, se couber ao lado do índice (intervalos de
+     * séculos); senão, a posição entre as datas distintas.
+     */
+    private long[] packDates(long[] seqs, int bits) {
+        long[] keys = new long[seqs.length];
+        synchronized (this) {
+            for (int i = 0; i < seqs.length; i++) keys[i] = date(seqs[i]);
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long k : keys) {
+            min = Math.min(min, k);
+            max = Math.max(max, k);
+        }
+        long[] packed = new long[seqs.length];
+        if (seqs.length > 0 && max - min >= 0 && max - min < (1L << (63 - bits))) {
+            for (int i = 0; i < seqs.length; i++) packed[i] = ((keys[i] - min) << bits) | i;
+            return packed;
+        }
+
+        long[] distinct = keys.clone();
+        Arrays.parallelSort(distinct);
+        int n = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[n - 1]) distinct[n++] = distinct[i];
+        }
+        for (int i = 0; i < seqs.length; i++) {
+            packed[i] = ((long) Arrays.binarySearch(distinct, 0, n, keys[i]) << bits) | i;
+        }
+        return packed;
+    }
+}
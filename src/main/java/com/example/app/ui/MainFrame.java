@@ -2,8 +2,16 @@ package com.example.app.ui;
 
 import com.example.app.model.Message;
 import com.example.app.model.MessageHistory;
+import com.example.app.service.DeliveryEngine;
+import com.example.app.service.HistoryJournal;
+import com.example.app.service.IntakeFilter;
 import com.example.app.service.PreferencesService;
+import com.example.app.service.SharedHistory;
+import com.example.app.service.SmtpSettings;
+import com.example.app.service.SubmissionPipeline;
+import com.example.app.util.AppEvents;
 import com.example.app.util.IconLoader;
+import com.example.app.util.Metrics;
 
 import javax.swing.*;
 import java.awt.*;
@@ -11,29 +19,60 @@ import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /** Janela principal expandida com histórico e configurações. */
 public class MainFrame extends JFrame {
 
+    private static final int SUBMIT_QUEUE_CAPACITY = 32;
+    private static final Metrics.Timer SUBMIT_TIME = Metrics.timer("frame.submit");
+    private static final Metrics.Counter SUBMIT_WAITING = Metrics.counter("frame.submit.waiting");
+
     private final CardLayout cards = new CardLayout();
     private final JPanel root = new JPanel(cards);
     private FormPanel formPanel;
     private SummaryPanel summaryPanel;
     private HistoryPanel historyPanel;
-    private final PreferencesService prefs = new PreferencesService();
+    private final PreferencesService prefs;
     private final MessageHistory messageHistory;
+    private final CompletableFuture<Services> services; // journal, compartilhado e entrega, abertos fora da EDT
+    private final SubmissionPipeline<FormPanel.Draft> pipeline;
+    private final IntakeFilter intake = new IntakeFilter();
+    private FormPanel.Draft waiting; // envio recusado com a fila cheia, reenviado quando liberar
 
     // Menu
     private final JMenuBar menuBar = new JMenuBar();
     private final JMenu menuView = new JMenu("Exibir");
     private final JMenuItem menuHistory = new JMenuItem("Histórico");
     private final JMenuItem menuForm = new JMenuItem("Formulário");
+    private final JMenuItem menuDiagnostics = new JMenuItem("Diagnóstico…");
+
+    private Runnable onFirstPaint;
 
     public MainFrame() {
-        super("Contato - Sistema Aprimorado");
+        this(new PreferencesService());
+    }
 
-        // Inicializa histórico
-        messageHistory = new MessageHistory(prefs.getHistoryMaxSize());
+    public MainFrame(PreferencesService prefs) {
+        super("Contato - Sistema Aprimorado");
+        this.prefs = prefs;
+
+        // Inicializa histórico; recuperação do journal, trava do arquivo compartilhado e leitura
+        // da caixa de saída rodam em segundo plano enquanto a janela é montada e pintada
+        messageHistory = new MessageHistory(prefs.getHistoryMaxSize(), prefs.getHistoryBackend());
+        services = CompletableFuture.supplyAsync(this::openServices)
+                .exceptionally(e -> {
+                    System.err.println("Erro ao iniciar serviços: " + e.getMessage());
+                    return new Services();
+                });
+        pipeline = new SubmissionPipeline<>(SUBMIT_QUEUE_CAPACITY, this::persistSubmission, this::showSubmission);
+        pipeline.setOnDrained(this::retryWaiting);
 
         setupWindow();
         setupMenus();
@@ -47,14 +86,57 @@ public class MainFrame extends JFrame {
         pack();
     }
 
+    /** Serviços abertos em segundo plano; cada um fica {@code null} se não pôde ser aberto. */
+    private static final class Services {
+        HistoryJournal journal;
+        SharedHistory shared;
+        DeliveryEngine delivery;
+    }
+
+    private Services openServices() {
+        Services s = new Services();
+        s.journal = openJournal();
+        s.shared = openShared();
+        s.delivery = startDelivery();
+        return s;
+    }
+
+    private HistoryJournal openJournal() {
+        Path file = Path.of(System.getProperty("user.home"), ".swing_forms_summary.history");
+        try {
+            return HistoryJournal.open(file, messageHistory, prefs.getHistorySyncMode());
+        } catch (IOException e) {
+            // Segue apenas em memória
+            System.err.println("Erro ao abrir histórico: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Depois do journal, para que o histórico restaurado não seja republicado. */
+    private SharedHistory openShared() {
+        if (!prefs.isHistoryShared()) return null;
+        Path file = Path.of(System.getProperty("user.home"), ".swing_forms_summary.shared");
+        try {
+            return SharedHistory.open(file, messageHistory, SharedHistory.DEFAULT_CAPACITY);
+        } catch (IOException e) {
+            System.err.println("Erro ao abrir histórico compartilhado: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private DeliveryEngine startDelivery() {
+        SmtpSettings smtp = prefs.getSmtpSettings();
+        if (smtp == null) return null;
+        return new DeliveryEngine(smtp, Path.of(System.getProperty("user.home"), ".swing_forms_summary.outbox"));
+    }
+
     private void setupWindow() {
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE); // encerrado por shutdown()
         setMinimumSize(new Dimension(560, 440));
         setLocationRelativeTo(null);
 
         // Ícone da aplicação
-        ImageIcon appIcon = IconLoader.load("/icons/app.png", 32);
-        if (appIcon != null) setIconImage(appIcon.getImage());
+        IconLoader.loadAsync("/icons/app.png", 32, icon -> setIconImage(icon.getImage()));
     }
 
     private void setupMenus() {
@@ -64,6 +146,8 @@ public class MainFrame extends JFrame {
 
         menuView.add(menuForm);
         menuView.add(menuHistory);
+        menuView.addSeparator();
+        menuView.add(menuDiagnostics);
         menuBar.add(menuView);
 
         setJMenuBar(menuBar);
@@ -71,9 +155,10 @@ public class MainFrame extends JFrame {
         // Ações do menu
         menuForm.addActionListener(e -> cards.show(root, "form"));
         menuHistory.addActionListener(e -> {
-            historyPanel.refreshHistory();
+            historyPanel().refreshHistory();
             cards.show(root, "history");
         });
+        menuDiagnostics.addActionListener(e -> DiagnosticsDialog.show(this));
     }
 
     private void setupPanels() {
@@ -81,15 +166,9 @@ public class MainFrame extends JFrame {
         JPanel banner = new BannerPanel();
         banner.setPreferredSize(new Dimension(560, 90));
 
-        // Instancia painéis
+        // Só o formulário é criado agora; resumo e histórico na primeira exibição
         formPanel = new FormPanel();
-        summaryPanel = new SummaryPanel();
-        historyPanel = new HistoryPanel(messageHistory);
-
-        // Adiciona ao CardLayout
         root.add(formPanel, "form");
-        root.add(summaryPanel, "summary");
-        root.add(historyPanel, "history");
 
         // Layout principal
         setLayout(new BorderLayout(0, 0));
@@ -100,13 +179,11 @@ public class MainFrame extends JFrame {
     private void setupListeners() {
         // Listeners dos painéis
         formPanel.setOnSubmit(this::handleSubmit);
-        summaryPanel.setOnBack(e -> cards.show(root, "form"));
-        historyPanel.setOnBack(e -> cards.show(root, "form"));
 
         // Pré-carrega dados do usuário
         formPanel.prefillName(prefs.loadName());
 
-        // Listener para salvar tamanho da janela
+        // Listener para salvar tamanho da janela (só em memória; a gravação é agrupada)
         if (prefs.isRememberWindowSize()) {
             addComponentListener(new ComponentAdapter() {
                 @Override
@@ -125,10 +202,25 @@ public class MainFrame extends JFrame {
                 if (prefs.isRememberWindowSize()) {
                     prefs.saveWindowSize(getSize());
                 }
+                // Some com a janela na hora; o encerramento (vários segundos, no pior caso) fica fora da EDT
+                setVisible(false);
+                Thread t = new Thread(MainFrame.this::shutdown, "shutdown");
+                t.start();
             }
         });
     }
 
+    /** Fora da EDT: termina os envios na fila, fecha os serviços e encerra a aplicação. */
+    private void shutdown() {
+        pipeline.close();
+        Services s = services.join();
+        if (s.delivery != null) s.delivery.close();
+        prefs.flush();
+        if (s.shared != null) s.shared.close();
+        if (s.journal != null) s.journal.close();
+        System.exit(0);
+    }
+
     private void loadPreferences() {
         // Carrega tamanho da janela
         if (prefs.isRememberWindowSize()) {
@@ -137,40 +229,214 @@ public class MainFrame extends JFrame {
         }
     }
 
-    private void handleSubmit(Message msg) {
-        // Salva preferências
+    private SummaryPanel summaryPanel() {
+        if (summaryPanel == null) {
+            summaryPanel = new SummaryPanel(messageHistory);
+            summaryPanel.setOnBack(e -> cards.show(root, "form"));
+            root.add(summaryPanel, "summary");
+        }
+        return summaryPanel;
+    }
+
+    private HistoryPanel historyPanel() {
+        if (historyPanel == null) {
+            historyPanel = new HistoryPanel(messageHistory);
+            historyPanel.setOnBack(e -> cards.show(root, "form"));
+            root.add(historyPanel, "history");
+        }
+        return historyPanel;
+    }
+
+    /** Executa {@code action} (uma vez) depois que a janela for pintada pela primeira vez. */
+    public void setOnFirstPaint(Runnable action) {
+        this.onFirstPaint = action;
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (onFirstPaint != null) {
+            Runnable action = onFirstPaint;
+            onFirstPaint = null;
+            SwingUtilities.invokeLater(action);
+        }
+    }
+
+    /** No worker, antes de persistir: recusa repetidos e excesso de envios. */
+    private boolean admit(FormPanel.Draft draft, Message msg) {
+        IntakeFilter.Verdict verdict = intake.check(msg);
+        if (verdict == IntakeFilter.Verdict.ACCEPTED) return true;
+        String reason = verdict == IntakeFilter.Verdict.DUPLICATE
+                ? "Mensagem idêntica enviada há pouco"
+                : "Muitos envios seguidos; aguarde alguns segundos";
+        long rejected = intake.getRejectedCount();
+        String notice = reason + " (" + rejected + (rejected == 1 ? " envio recusado)" : " envios recusados)");
+        SwingUtilities.invokeLater(() -> {
+            formPanel.showNotice(notice);
+            formPanel.restoreBody(draft.getBody());
+        });
+        return false;
+    }
+
+    /** Na EDT: apenas enfileira; com a fila cheia o formulário fica em "Enviando…". */
+    private void handleSubmit(FormPanel.Draft draft) {
+        long start = Metrics.start();
+        AppEvents.Submit event = new AppEvents.Submit();
+        event.begin();
+        event.stage = "frame";
+        event.valid = true;
+        if (waiting != null || !pipeline.offer(draft)) {
+            waiting = draft;
+            formPanel.setSending(true);
+            event.waiting = true;
+            SUBMIT_WAITING.increment();
+        }
+        event.commit();
+        SUBMIT_TIME.record(start);
+    }
+
+    private void retryWaiting() {
+        if (waiting != null && pipeline.offer(waiting)) {
+            waiting = null;
+            formPanel.setSending(false);
+        }
+    }
+
+    /**
+     * No worker: monta a mensagem (compressão e hash do corpo ficam fora da EDT), aplica o
+     * filtro de entrada e faz preferências, histórico e demais efeitos colaterais. Espera os
+     * serviços abrirem, para o envio entrar no journal depois do histórico recuperado.
+     *
+     * @return a mensagem gravada, ou {@code null} se foi recusada
+     */
+    private Message persistSubmission(FormPanel.Draft draft) {
+        Message msg = draft.toMessage();
+        if (!admit(draft, msg)) return null;
+        Services s = services.join();
         prefs.saveName(msg.getName());
         prefs.saveLastEmail(msg.getEmail());
-
-        // Adiciona ao histórico
         messageHistory.addMessage(msg);
+        if (s.delivery != null) s.delivery.enqueue(msg);
+        return msg;
+    }
 
-        // Atualiza painel de resumo
-        summaryPanel.updateSummary(msg);
-
-        // Navega para resumo
+    /** De volta na EDT: atualiza o resumo e navega para ele. */
+    private void showSubmission(Message msg) {
+        summaryPanel().updateSummary(msg);
         cards.show(root, "summary");
     }
 
-    /** Banner customizado mantido igual. */
-    static class BannerPanel extends JPanel {
+    /**
+     * Banner customizado. O desenho (gradiente, fonte derivada, antialiasing) é feito uma
+     * vez por tamanho e escala em uma {@link VolatileImage} (ou {@link BufferedImage} quando
+     * não há aceleração, como em modo headless); as pinturas seguintes só copiam a imagem.
+     */
+    public static class BannerPanel extends JPanel {
+        private static final Color BASE = new Color(30, 136, 229);
+        private static final String TITLE = "Formulário de Contato";
+
+        private VolatileImage volatileCache;
+        private BufferedImage bufferedCache;
+        private int cacheWidth;
+        private int cacheHeight;
+        private Font cacheFont;
+        private Color cacheBackground; // null: imagem transparente (painel não opaco)
+
         @Override
         protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
+            int w = getWidth(), h = getHeight();
+            // Opaco, o fundo vai junto na imagem e a cópia dispensa mistura de alfa
+            Color background = isOpaque() ? getBackground() : null;
+            if (background == null || w <= 0 || h <= 0) super.paintComponent(g);
+            if (w <= 0 || h <= 0) return;
+
+            // Tamanho em pixels do dispositivo (telas HiDPI escalam o Graphics)
+            AffineTransform tx = ((Graphics2D) g).getTransform();
+            int pw = (int) Math.ceil(w * tx.getScaleX());
+            int ph = (int) Math.ceil(h * tx.getScaleY());
+            if (pw != cacheWidth || ph != cacheHeight || getFont() != cacheFont
+                    || !Objects.equals(background, cacheBackground)) {
+                flushCache();
+                cacheWidth = pw;
+                cacheHeight = ph;
+                cacheFont = getFont();
+                cacheBackground = background;
+            }
+
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            if (gc != null && !GraphicsEnvironment.isHeadless() && paintVolatile(g, gc, w, h)) return;
+
+            if (bufferedCache == null) {
+                bufferedCache = new BufferedImage(pw, ph,
+                        background != null ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+                render(bufferedCache.createGraphics(), w, h);
+            }
+            g.drawImage(bufferedCache, 0, 0, w, h, null);
+        }
+
+        /** Copia a imagem acelerada, redesenhando se a superfície foi perdida. */
+        private boolean paintVolatile(Graphics g, GraphicsConfiguration gc, int w, int h) {
+            for (int attempt = 0; attempt < 3; attempt++) {
+                if (volatileCache == null) {
+                    volatileCache = gc.createCompatibleVolatileImage(cacheWidth, cacheHeight,
+                            cacheBackground != null ? Transparency.OPAQUE : Transparency.TRANSLUCENT);
+                    if (volatileCache == null) return false;
+                    render(volatileCache.createGraphics(), w, h);
+                }
+                int status = volatileCache.validate(gc);
+                if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    // Janela mudou de monitor: recria na configuração atual
+                    volatileCache.flush();
+                    volatileCache = null;
+                    continue;
+                }
+                if (status == VolatileImage.IMAGE_RESTORED) render(volatileCache.createGraphics(), w, h);
+                g.drawImage(volatileCache, 0, 0, w, h, null);
+                if (!volatileCache.contentsLost()) return true;
+            }
+            return false;
+        }
+
+        /** Desenha o banner na imagem, sobre o fundo do painel ou transparente. */
+        private void render(Graphics2D g, int w, int h) {
+            if (cacheBackground != null) {
+                g.setColor(cacheBackground);
+            } else {
+                g.setComposite(AlphaComposite.Clear);
+            }
+            g.fillRect(0, 0, cacheWidth, cacheHeight);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.scale(cacheWidth / (double) w, cacheHeight / (double) h);
+            paintBanner(g, w, h, getFont());
+            g.dispose();
+        }
+
+        private void flushCache() {
+            if (volatileCache != null) volatileCache.flush();
+            volatileCache = null;
+            bufferedCache = null;
+        }
+
+        @Override
+        public void removeNotify() {
+            super.removeNotify();
+            flushCache();
+        }
+
+        /** Desenho completo do banner, sem cache; usado para preencher a imagem. */
+        public static void paintBanner(Graphics2D g, int w, int h, Font baseFont) {
             Graphics2D g2 = (Graphics2D) g.create();
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-            int w = getWidth(), h = getHeight();
-            Color base = new Color(30, 136, 229);
-            Color dark = base.darker();
-            GradientPaint gp = new GradientPaint(0, 0, base, w, h, dark);
+            Color dark = BASE.darker();
+            GradientPaint gp = new GradientPaint(0, 0, BASE, w, h, dark);
             g2.setPaint(gp);
             g2.fillRoundRect(10, 10, w - 20, h - 20, 24, 24);
 
             g2.setColor(Color.WHITE);
-            g2.setFont(getFont().deriveFont(Font.BOLD, 20f));
-            g2.drawString("Formulário de Contato", 26, 48);
+            g2.setFont(baseFont.deriveFont(Font.BOLD, 20f));
+            g2.drawString(TITLE, 26, 48);
             g2.dispose();
         }
     }
-}
\ No newline at end of file
+}
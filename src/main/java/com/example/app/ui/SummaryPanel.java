@@ -1,12 +1,17 @@
 package com.example.app.ui;
 
 import com.example.app.model.Message;
+import com.example.app.model.MessageHistory;
+import com.example.app.service.MessageExporter;
+import com.example.app.util.DateFormats;
 import com.example.app.util.IconLoader;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 
 /** Tela 2: Resumo do envio. */
 public class SummaryPanel extends JPanel {
@@ -15,9 +20,20 @@ public class SummaryPanel extends JPanel {
     private final JLabel lblMail = new JLabel();
     private final JTextArea txtSummary = new JTextArea(8, 28);
     private final JButton btnBack = new JButton("Voltar");
+    private final MessageHistory history;
+    private final ExportControls export;
+    private volatile Message current;
 
     public SummaryPanel() {
+        this(null);
+    }
+
+    /** Com {@code history}, a exportação inclui os demais envios do mesmo remetente. */
+    public SummaryPanel(MessageHistory history) {
         super(new BorderLayout(10,10));
+        this.history = history;
+        this.export = new ExportControls(this, "contato", this::exportSummary);
+        export.setAvailable(false);
 
         // Topo com ícones e dados básicos
         JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT, 12, 8));
@@ -39,6 +55,7 @@ public class SummaryPanel extends JPanel {
         // Rodapé
         JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         btnBack.setMnemonic('V');
+        export.addTo(bottom);
         bottom.add(btnBack);
 
         add(top, BorderLayout.NORTH);
@@ -47,9 +64,11 @@ public class SummaryPanel extends JPanel {
     }
 
     public void updateSummary(Message m) {
+        current = m;
+        export.setAvailable(true);
         lblUser.setText(" " + m.getName());
         lblMail.setText(" " + m.getEmail());
-        String ts = m.getCreatedAt().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
+        String ts = m.getCreatedAt().format(DateFormats.DISPLAY);
         txtSummary.setText("Enviado em: " + ts + "\n\n" + m.getBody());
         txtSummary.setCaretPosition(0);
     }
@@ -59,5 +78,11 @@ public class SummaryPanel extends JPanel {
         btnBack.addActionListener(al);
     }
 
-    // TODO: permitir salvar/exportar o resumo (ex.: TXT/JSON) e anexar uma lista de envios
+    /** Fora da EDT: resumo atual seguido dos envios do mesmo remetente. */
+    private void exportSummary(Path file, MessageExporter.Format format,
+                               MessageExporter.Progress progress) throws IOException {
+        Message m = current;
+        List<Message> sends = history != null ? history.getMessagesByEmail(m.getEmail()) : List.of(m);
+        MessageExporter.exportMessage(m, sends, format, file);
+    }
 }
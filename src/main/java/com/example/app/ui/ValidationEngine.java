@@ -0,0 +1,189 @@
+package com.example.app.ui;
+
+import com.example.app.util.Metrics;
+import com.example.app.util.Validation;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.Segment;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validação incremental dos campos de um formulário, na EDT. Cada campo registrado ocupa
+ * um bit da máscara de válidos; uma edição revalida só o campo alterado, agrupando as
+ * edições seguidas (debounce). Regras do tipo "existe algum..." (como não vazio)
+ * resolvem inserções olhando apenas o texto inserido. O documento é lido em trechos
+ * ({@link Segment} com retorno parcial), sem copiar mensagens grandes.
+ */
+final class ValidationEngine {
+
+    private static final Metrics.Timer VALIDATE_TIME = Metrics.timer("form.validate");
+
+    /** Regra de validação de um campo. */
+    interface Rule {
+        /** Valida o trecho {@code [offset, offset + length)} do documento. */
+        boolean test(Document doc, int offset, int length, Segment segment) throws BadLocationException;
+
+        /**
+         * Se o documento é válido quando algum trecho dele é: inserções nunca invalidam e,
+         * num campo inválido, basta verificar o texto inserido.
+         */
+        default boolean isExistential() {
+            return false;
+        }
+    }
+
+    /** Recebe o novo estado de um campo quando ele muda. */
+    @FunctionalInterface
+    interface Listener {
+        void validityChanged(int field, boolean valid);
+    }
+
+    /** Algum caractere acima de espaço, como {@link Validation#notBlank(CharSequence)}. */
+    static final Rule NOT_BLANK = new Rule() {
+        @Override
+        public boolean test(Document doc, int offset, int length, Segment segment) throws BadLocationException {
+            int end = offset + length;
+            while (offset < end) {
+                doc.getText(offset, end - offset, segment);
+                if (segment.count == 0) return false;
+                if (Validation.notBlank(segment, 0, segment.count)) return true;
+                offset += segment.count;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isExistential() {
+            return true;
+        }
+    };
+
+    /** E-mail válido ({@link Validation#isEmail(CharSequence)}); campo curto, lido de uma vez. */
+    static final Rule EMAIL = (doc, offset, length, segment) -> {
+        segment.setPartialReturn(false);
+        try {
+            doc.getText(offset, length, segment);
+            return Validation.isEmail(segment);
+        } finally {
+            segment.setPartialReturn(true);
+        }
+    };
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final List<Document> documents = new ArrayList<>();
+    private final Segment segment = new Segment();
+    private final Timer debounce;
+    private final Listener listener;
+    private int validMask;
+    private int dirtyMask; // aguardando o debounce
+
+    ValidationEngine(int debounceMillis, Listener listener) {
+        this.listener = listener;
+        segment.setPartialReturn(true);
+        debounce = new Timer(debounceMillis, e -> flush());
+        debounce.setRepeats(false);
+    }
+
+    /** Registra o campo (até 32) e devolve o índice dele na máscara. */
+    int add(JTextComponent field, Rule rule) {
+        int index = rules.size();
+        if (index == Integer.SIZE) throw new IllegalStateException("Campos demais para a máscara");
+        Document doc = field.getDocument();
+        rules.add(rule);
+        documents.add(doc);
+        doc.addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                inserted(index, e.getOffset(), e.getLength());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                removed(index);
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Só atributos; o texto não mudou
+            }
+        });
+        set(index, validate(index));
+        return index;
+    }
+
+    boolean isValid(int field) {
+        return (validMask & (1 << field)) != 0;
+    }
+
+    /** Todos os campos válidos (pelo último resultado, sem esperar o debounce). */
+    boolean isAllValid() {
+        return validMask == (int) ((1L << rules.size()) - 1);
+    }
+
+    /** Aplica já as validações pendentes (perda de foco, envio). */
+    void validateNow() {
+        debounce.stop();
+        flush();
+    }
+
+    private void inserted(int field, int offset, int length) {
+        int bit = 1 << field;
+        Rule rule = rules.get(field);
+        if (!rule.isExistential() || (dirtyMask & bit) != 0) {
+            markDirty(bit);
+        } else if ((validMask & bit) == 0 && test(field, offset, length)) {
+            set(field, true); // Inválido até agora: o texto novo decide
+        }
+    }
+
+    private void removed(int field) {
+        int bit = 1 << field;
+        // Remover texto não torna válida uma regra existencial
+        if (rules.get(field).isExistential() && (validMask & bit) == 0 && (dirtyMask & bit) == 0) return;
+        markDirty(bit);
+    }
+
+    private void markDirty(int bit) {
+        dirtyMask |= bit;
+        debounce.restart();
+    }
+
+    private void flush() {
+        int dirty = dirtyMask;
+        dirtyMask = 0;
+        while (dirty != 0) {
+            int field = Integer.numberOfTrailingZeros(dirty);
+            dirty &= dirty - 1;
+            set(field, validate(field));
+        }
+    }
+
+    private boolean validate(int field) {
+        return test(field, 0, documents.get(field).getLength());
+    }
+
+    private boolean test(int field, int offset, int length) {
+        long start = Metrics.start();
+        try {
+            return rules.get(field).test(documents.get(field), offset, length, segment);
+        } catch (BadLocationException e) {
+            return false;
+        } finally {
+            VALIDATE_TIME.record(start);
+        }
+    }
+
+    private void set(int field, boolean valid) {
+        int bit = 1 << field;
+        int mask = valid ? validMask | bit : validMask & ~bit;
+        if (mask == validMask) return;
+        validMask = mask;
+        listener.validityChanged(field, valid);
+    }
+}
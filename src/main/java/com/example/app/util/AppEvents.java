@@ -0,0 +1,91 @@
+package com.example.app.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Eventos do JDK Flight Recorder da aplicação, na categoria "Swing Forms".
+ * Gravados com {@code -XX:StartFlightRecording} ou {@code jcmd <pid> JFR.start};
+ * sem gravação em andamento, {@code begin()}/{@code commit()} não fazem nada e o JIT
+ * elimina a criação do evento.
+ */
+public final class AppEvents {
+
+    private AppEvents() {}
+
+    @Name("com.example.app.Submit")
+    @Label("Envio do formulário")
+    @Category("Swing Forms")
+    @StackTrace(false)
+    public static final class Submit extends Event {
+        @Label("Etapa")
+        @Description("form: validação e envio no FormPanel; frame: entrada na fila do MainFrame")
+        public String stage;
+
+        @Label("Válido")
+        public boolean valid;
+
+        @Label("Aguardando fila")
+        @Description("A fila de envios estava cheia e o envio ficou em espera")
+        public boolean waiting;
+    }
+
+    @Name("com.example.app.Preferences")
+    @Label("Preferências")
+    @Category("Swing Forms")
+    @StackTrace(false)
+    public static final class Preferences extends Event {
+        @Label("Operação")
+        public String operation;
+
+        @Label("Arquivo")
+        public String file;
+
+        @Label("Bytes")
+        @DataAmount(DataAmount.BYTES)
+        public long bytes;
+
+        @Label("Sucesso")
+        public boolean success;
+    }
+
+    /** Limite padrão de 1 ms: uma importação em lote gera milhões de inclusões. */
+    @Name("com.example.app.History")
+    @Label("Histórico")
+    @Category("Swing Forms")
+    @StackTrace(false)
+    @Threshold("1 ms")
+    public static final class History extends Event {
+        @Label("Operação")
+        @Description("add, evict ou query")
+        public String operation;
+
+        @Label("Sequência")
+        public long seq;
+
+        @Label("Mensagens")
+        @Description("Mensagens no histórico (add/evict) ou resultados da consulta (query)")
+        public int count;
+    }
+
+    @Name("com.example.app.IconLoad")
+    @Label("Carga de ícone")
+    @Category("Swing Forms")
+    @StackTrace(false)
+    public static final class IconLoad extends Event {
+        @Label("Caminho")
+        public String path;
+
+        @Label("Tamanho")
+        public int size;
+
+        @Label("Do cache")
+        public boolean cached;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.app.util;
+
+import java.time.format.DateTimeFormatter;
+
+/** Formatos de data compartilhados ({@link DateTimeFormatter} é imutável e thread-safe). */
+public final class DateFormats {
+
+    /** Data e hora exibidas na interface e nas exportações em texto. */
+    public static final DateTimeFormatter DISPLAY = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private DateFormats() {}
+}
@@ -0,0 +1,132 @@
+package com.example.app.util;
+
+import javax.swing.*;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vigia da EDT: a cada intervalo envia um batimento por {@link SwingUtilities#invokeLater}
+ * e mede quanto tempo ele esperou na fila (histograma {@code edt.latency} do {@link Metrics}).
+ * Se um batimento passar do limite sem rodar, a pilha da EDT é gravada em um log
+ * rotativo; quando ela volta a responder, a duração total do travamento também.
+ * Nunca há mais de um batimento pendente, então uma EDT travada não acumula tarefas.
+ */
+public final class EdtWatchdog implements Closeable {
+
+    private static final long MAX_LOG_BYTES = 1024 * 1024; // depois disso vira <log>.1
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final Metrics.Timer LATENCY = Metrics.timer("edt.latency");
+    private static final Metrics.Counter STALLS = Metrics.counter("edt.stalls");
+
+    private final long thresholdNanos;
+    private final Path log;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "edt-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Thread edt;
+    private volatile long postedAt;      // 0: nenhum batimento pendente
+    private volatile long releasedAfter; // travamento encerrado ainda não registrado
+    private boolean sampled;             // pilha do batimento atual já gravada
+
+    private EdtWatchdog(long thresholdMillis, Path log) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.log = log;
+    }
+
+    /**
+     * Começa a vigiar.
+     *
+     * @param intervalMillis  intervalo entre batimentos (e entre verificações)
+     * @param thresholdMillis espera a partir da qual a EDT é considerada travada
+     * @param log             arquivo do log de travamentos
+     */
+    public static EdtWatchdog start(long intervalMillis, long thresholdMillis, Path log) {
+        EdtWatchdog watchdog = new EdtWatchdog(thresholdMillis, log);
+        watchdog.scheduler.scheduleWithFixedDelay(watchdog::tick, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+        return watchdog;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /** Na thread do vigia. */
+    private void tick() {
+        long released = releasedAfter;
+        if (released != 0) {
+            releasedAfter = 0;
+            write(String.format("%s EDT liberada após %d ms%n%n", LocalDateTime.now().format(STAMP),
+                    TimeUnit.NANOSECONDS.toMillis(released)));
+        }
+
+        long posted = postedAt;
+        long now = System.nanoTime();
+        if (posted == 0) {
+            sampled = false;
+            postedAt = now;
+            SwingUtilities.invokeLater(this::beat);
+        } else if (!sampled && now - posted >= thresholdNanos) {
+            sampled = true;
+            STALLS.increment();
+            writeStack(TimeUnit.NANOSECONDS.toMillis(now - posted));
+        }
+    }
+
+    /** Na EDT. */
+    private void beat() {
+        edt = Thread.currentThread();
+        long waited = System.nanoTime() - postedAt;
+        LATENCY.recordNanos(waited);
+        if (waited >= thresholdNanos) releasedAfter = waited;
+        postedAt = 0;
+    }
+
+    private void writeStack(long blockedMillis) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(LocalDateTime.now().format(STAMP))
+                .append(" EDT sem responder há ").append(blockedMillis).append(" ms\n");
+        Thread t = edt;
+        if (t == null) {
+            sb.append("  (pilha indisponível: a EDT ainda não executou nenhum batimento)\n");
+        } else {
+            sb.append('"').append(t.getName()).append("\" ").append(t.getState()).append('\n');
+            for (StackTraceElement e : t.getStackTrace()) sb.append("    at ").append(e).append('\n');
+        }
+        if (LATENCY.getCount() > 0) {
+            sb.append(String.format("  latência dos batimentos: p50 %.1f ms, p99 %.1f ms, máx %.1f ms (%d amostras)%n",
+                    LATENCY.percentile(0.50) / 1e6, LATENCY.percentile(0.99) / 1e6,
+                    LATENCY.getMaxNanos() / 1e6, LATENCY.getCount()));
+        }
+        write(sb.toString());
+    }
+
+    private void write(String entry) {
+        try {
+            if (Files.exists(log) && Files.size(log) > MAX_LOG_BYTES) {
+                Files.move(log, log.resolveSibling(log.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(log, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(entry);
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar log da EDT: " + e.getMessage());
+        }
+    }
+}
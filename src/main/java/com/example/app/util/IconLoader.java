@@ -1,17 +1,190 @@
 package com.example.app.util;
 
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BaseMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-/** Utilitário para carregar ícones do classpath e escalonar suavemente. */
+/**
+ * Utilitário para carregar ícones do classpath e escalonar suavemente.
+ * Decodificação e redimensionamento rodam em segundo plano e ficam em cache por
+ * (caminho, tamanho); cada ícone leva variantes 1x–2x para telas HiDPI.
+ */
 public final class IconLoader {
+    private static final double[] SCALES = {1.0, 1.25, 1.5, 2.0};
+    private static final Metrics.Timer LOAD_TIME = Metrics.timer("icon.load");
+    private static final Metrics.Counter CACHE_MISSES = Metrics.counter("icon.load.miss");
+
+    private static final ExecutorService DECODER = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())), r -> {
+                Thread t = new Thread(r, "icon-loader");
+                t.setDaemon(true);
+                return t;
+            });
+    private static final Map<String, CompletableFuture<BufferedImage>> SOURCES = new ConcurrentHashMap<>();
+    private static final Map<String, CompletableFuture<Image>> SCALED = new ConcurrentHashMap<>();
+    private static final Map<String, ImageIcon> ICONS = new ConcurrentHashMap<>();
+
     private IconLoader(){}
 
+    /**
+     * Ícone do cache. Se ainda não estiver pronto, devolve na hora um ícone transparente
+     * do mesmo tamanho, preenchido (e repintado) quando a imagem terminar de carregar.
+     * Retorna {@code null} se o recurso não existir.
+     */
     public static ImageIcon load(String path, int size) {
+        long start = Metrics.start();
+        AppEvents.IconLoad event = new AppEvents.IconLoad();
+        event.begin();
+        String key = path + '@' + size;
+        ImageIcon icon = ICONS.get(key);
+        event.cached = icon != null;
+        if (icon == null) {
+            CACHE_MISSES.increment();
+            if (IconLoader.class.getResource(path) != null) {
+                icon = ICONS.computeIfAbsent(key, k -> createIcon(path, size));
+            }
+        }
+        event.path = path;
+        event.size = size;
+        event.commit();
+        LOAD_TIME.record(start);
+        return icon;
+    }
+
+    /** Entrega o ícone na EDT assim que estiver carregado (útil para o ícone da janela). */
+    public static void loadAsync(String path, int size, Consumer<ImageIcon> onReady) {
+        if (IconLoader.class.getResource(path) == null) return;
+        scaled(path, size).thenAccept(img -> SwingUtilities.invokeLater(() -> onReady.accept(load(path, size))));
+    }
+
+    /** Decodifica em paralelo todos os ícones de {@code /icons} nos tamanhos indicados. */
+    public static CompletableFuture<Void> preload(int... sizes) {
+        List<CompletableFuture<Image>> pending = new ArrayList<>();
+        for (String path : listIcons()) {
+            for (int size : sizes) pending.add(scaled(path, size));
+        }
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                .exceptionally(e -> null);
+    }
+
+    private static ImageIcon createIcon(String path, int size) {
+        CompletableFuture<Image> future = scaled(path, size);
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            return new ImageIcon(future.join());
+        }
+        ImageIcon icon = new ImageIcon(new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB));
+        future.thenAccept(img -> SwingUtilities.invokeLater(() -> {
+            icon.setImage(img);
+            for (Window w : Window.getWindows()) w.repaint();
+        }));
+        return icon;
+    }
+
+    private static CompletableFuture<Image> scaled(String path, int size) {
+        return SCALED.computeIfAbsent(path + '@' + size,
+                k -> source(path).thenApplyAsync(src -> multiResolution(src, size), DECODER));
+    }
+
+    private static CompletableFuture<BufferedImage> source(String path) {
+        return SOURCES.computeIfAbsent(path, p -> CompletableFuture.supplyAsync(() -> decode(p), DECODER));
+    }
+
+    private static BufferedImage decode(String path) {
         URL url = IconLoader.class.getResource(path);
-        if (url == null) return null;
-        Image img = new ImageIcon(url).getImage().getScaledInstance(size, size, Image.SCALE_SMOOTH);
-        return new ImageIcon(img);
+        try {
+            BufferedImage img = url == null ? null : ImageIO.read(url);
+            if (img == null) throw new IOException("Ícone inválido: " + path);
+            return img;
+        } catch (IOException e) {
+            System.err.println("Erro ao carregar ícone: " + path);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Image multiResolution(BufferedImage src, int size) {
+        Image[] variants = new Image[SCALES.length];
+        for (int i = 0; i < SCALES.length; i++) {
+            variants[i] = scale(src, (int) Math.round(size * SCALES[i]));
+        }
+        return new BaseMultiResolutionImage(variants);
+    }
+
+    /**
+     * Reduz pela metade com interpolação bilinear até chegar perto do tamanho final e
+     * termina com bicúbica: qualidade próxima do SCALE_SMOOTH, bem mais rápido.
+     */
+    static BufferedImage scale(BufferedImage src, int size) {
+        BufferedImage current = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        while (w / 2 >= size && h / 2 >= size) {
+            w /= 2;
+            h /= 2;
+            current = draw(current, w, h, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        return draw(current, size, size, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    private static BufferedImage draw(BufferedImage src, int w, int h, Object interpolation) {
+        BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = out.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(src, 0, 0, w, h, null);
+        g.dispose();
+        return out;
+    }
+
+    /** Caminhos dos PNGs em {@code /icons}, seja em diretório ou dentro do jar. */
+    private static List<String> listIcons() {
+        URL url = IconLoader.class.getResource("/icons");
+        List<String> paths = new ArrayList<>();
+        if (url == null) return paths;
+        try {
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                FileSystem fs;
+                try {
+                    fs = FileSystems.newFileSystem(uri, Map.of());
+                } catch (FileSystemAlreadyExistsException e) {
+                    fs = FileSystems.getFileSystem(uri);
+                }
+                collect(fs.getPath("/icons"), paths);
+            } else {
+                collect(Path.of(uri), paths);
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            System.err.println("Erro ao listar ícones: " + url);
+        }
+        return paths;
+    }
+
+    private static void collect(Path dir, List<String> paths) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.endsWith(".png"))
+                    .forEach(name -> paths.add("/icons/" + name));
+        }
     }
 }
@@ -0,0 +1,182 @@
+package com.example.app.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de métricas em processo: contadores e histogramas de latência por nome.
+ * Começa ativo com {@code -Dapp.metrics=true} e pode ser ligado pelo diálogo de
+ * diagnóstico. Desativado, cada ponto instrumentado custa a leitura de um campo
+ * {@code volatile}: nem relógio, nem escrita em memória compartilhada.
+ * <pre>
+ * private static final Metrics.Timer SAVE = Metrics.timer("preferences.save");
+ * long start = Metrics.start();
+ * ...
+ * SAVE.record(start);
+ * </pre>
+ */
+public final class Metrics {
+
+    private static volatile boolean enabled = Boolean.getBoolean("app.metrics");
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Timer> TIMERS = new ConcurrentSkipListMap<>();
+
+    private Metrics() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /** Contador com o nome dado, criado na primeira chamada. Guarde em um campo estático. */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    /** Histograma de latência com o nome dado, criado na primeira chamada. */
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, Timer::new);
+    }
+
+    /** Instante inicial para {@link Timer#record(long)}; {@code 0} se desativado. */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /** Zera todos os valores, mantendo os nomes registrados. */
+    public static void reset() {
+        for (Counter c : COUNTERS.values()) c.value.reset();
+        for (Timer t : TIMERS.values()) t.reset();
+    }
+
+    /** Relatório em texto de todos os contadores e latências. */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Métricas ").append(enabled ? "(coletando)" : "(desativadas)").append("\n\n");
+        sb.append("Contadores\n");
+        for (Counter c : COUNTERS.values()) {
+            sb.append(String.format("  %-28s %12d%n", c.name, c.get()));
+        }
+        sb.append("\nLatências (ms)\n");
+        sb.append(String.format("  %-28s %9s %9s %9s %9s %9s %9s%n", "", "n", "média", "p50", "p90", "p99", "máx"));
+        for (Timer t : TIMERS.values()) {
+            long n = t.getCount();
+            sb.append(String.format("  %-28s %9d %9.3f %9.3f %9.3f %9.3f %9.3f%n", t.name, n,
+                    n == 0 ? 0.0 : millis(t.sum.sum()) / n,
+                    millis(t.percentile(0.50)), millis(t.percentile(0.90)), millis(t.percentile(0.99)),
+                    millis(t.getMaxNanos())));
+        }
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    public static final class Counter {
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public void increment() {
+            if (enabled) value.increment();
+        }
+
+        public void add(long n) {
+            if (enabled) value.add(n);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Histograma log-linear em nanossegundos: cada potência de 2 é dividida em 8 faixas,
+     * erro de até 12,5% em qualquer escala, tamanho fixo (488 posições) e gravação sem
+     * lock nem alocação.
+     */
+    public static final class Timer {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+        private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        /** Registra o tempo desde {@code start} (de {@link Metrics#start()}). */
+        public void record(long start) {
+            if (start == 0L || !enabled) return;
+            recordNanos(System.nanoTime() - start);
+        }
+
+        public void recordNanos(long nanos) {
+            if (!enabled) return;
+            long v = Math.max(0, nanos);
+            buckets.incrementAndGet(bucket(v));
+            count.increment();
+            sum.add(v);
+            max.accumulate(v);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getMaxNanos() {
+            return max.get();
+        }
+
+        /** Valor (ponto médio da faixa) abaixo do qual estão {@code p} das amostras. */
+        public long percentile(double p) {
+            long total = 0;
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) total += counts[i] = buckets.get(i);
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(max.get(), (lowerBound(i) + lowerBound(i + 1)) / 2);
+            }
+            return max.get();
+        }
+
+        private void reset() {
+            for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+
+        private static int bucket(long v) {
+            if (v < SUB_COUNT) return (int) v;
+            int exp = 63 - Long.numberOfLeadingZeros(v);
+            return (exp - SUB_BITS + 1) * SUB_COUNT + (int) ((v >>> (exp - SUB_BITS)) & (SUB_COUNT - 1));
+        }
+
+        private static long lowerBound(int bucket) {
+            if (bucket < SUB_COUNT) return bucket;
+            int exp = bucket / SUB_COUNT + SUB_BITS - 1;
+            if (exp >= 63) return Long.MAX_VALUE;
+            return (long) (SUB_COUNT + bucket % SUB_COUNT) << (exp - SUB_BITS);
+        }
+    }
+}
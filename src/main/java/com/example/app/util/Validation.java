@@ -1,17 +1,51 @@
 package com.example.app.util;
 
-import java.util.regex.Pattern;
-
-/** Validações simples e reutilizáveis. */
+/**
+ * Validações simples e reutilizáveis.
+ * Operam sobre qualquer {@link CharSequence} (ou trecho dele) em uma única passada,
+ * ignorando espaços nas pontas sem copiar o texto.
+ */
 public final class Validation {
-    private static final Pattern EMAIL =  Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
     private Validation(){}
 
-    public static boolean notBlank(String s) {
-        return s != null && !s.trim().isEmpty();
+    public static boolean notBlank(CharSequence s) {
+        return s != null && notBlank(s, 0, s.length());
+    }
+
+    /** Há algum caractere acima de espaço em {@code [from, to)} (mesmo critério de {@code trim()}). */
+    public static boolean notBlank(CharSequence s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) > ' ') return true;
+        }
+        return false;
     }
 
-    public static boolean isEmail(String s) {
-        return notBlank(s) && EMAIL.matcher(s.trim()).matches();
+    public static boolean isEmail(CharSequence s) {
+        return s != null && isEmail(s, 0, s.length());
+    }
+
+    /**
+     * Equivale a {@code ^[^@\s]+@[^@\s]+\.[^@\s]+$} aplicado ao trecho sem os espaços
+     * das pontas: um único '@' com algo antes, e depois dele um '.' que não seja o
+     * primeiro nem o último caractere do domínio.
+     */
+    public static boolean isEmail(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') from++;
+        while (to > from && s.charAt(to - 1) <= ' ') to--;
+
+        int at = -1;
+        int dot = -1; // primeiro '.' com ao menos um caractere entre ele e o '@'
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '@') {
+                if (at >= 0 || i == from) return false;
+                at = i;
+            } else if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                return false;
+            } else if (c == '.' && at >= 0 && dot < 0 && i > at + 1) {
+                dot = i;
+            }
+        }
+        return dot >= 0 && dot < to - 1;
     }
 }
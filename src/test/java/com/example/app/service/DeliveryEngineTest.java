@@ -0,0 +1,109 @@
+package com.example.app.service;
+
+import com.example.app.model.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/** Novas tentativas, descartes e caixa de saída persistida, contra o {@link FakeSmtpServer}. */
+class DeliveryEngineTest {
+
+    private static final long RETRY_BASE_MILLIS = 300;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void temporaryFailureIsRetriedAfterBackoffAndDelivered() throws Exception {
+        // Transações 1 e 3 passam, a 2 recebe 451
+        try (FakeSmtpServer server = new FakeSmtpServer(2)) {
+            DeliveryEngine engine = new DeliveryEngine(settings(server), dir.resolve("outbox"));
+            long start = System.nanoTime();
+            engine.enqueue(message(1));
+            engine.enqueue(message(2));
+            await(() -> engine.getDelivered() == 2);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            engine.close();
+
+            assertEquals(1, engine.getRetried());
+            assertEquals(0, engine.getRejected());
+            assertEquals(0, engine.getPending());
+            assertEquals(2, server.getAccepted());
+            assertEquals(3, server.getTransactions());
+            assertTrue(elapsedMillis >= RETRY_BASE_MILLIS, "nova tentativa sem espera: " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test
+    void permanentRejectionIsDropped() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(1, true)) {
+            DeliveryEngine engine = new DeliveryEngine(settings(server), dir.resolve("outbox"));
+            engine.enqueue(message(1));
+            await(() -> engine.getRejected() == 1);
+            engine.close();
+
+            assertEquals(0, engine.getDelivered());
+            assertEquals(0, engine.getRetried());
+            assertEquals(0, engine.getPending());
+            assertEquals(1, server.getTransactions());
+        }
+    }
+
+    @Test
+    void outboxSurvivesRestart() throws Exception {
+        Path outbox = dir.resolve("outbox");
+        try (FakeSmtpServer down = new FakeSmtpServer(1)) {
+            DeliveryEngine engine = new DeliveryEngine(settings(down), outbox);
+            engine.enqueue(message(1));
+            engine.enqueue(message(2));
+            await(() -> engine.getRetried() >= 2);
+            engine.close();
+            assertEquals(2, engine.getPending());
+            assertEquals(0, down.getAccepted());
+        }
+        assertTrue(Files.size(outbox) > 0);
+
+        try (FakeSmtpServer up = new FakeSmtpServer(0)) {
+            DeliveryEngine engine = new DeliveryEngine(settings(up), outbox);
+            assertEquals(2, engine.getPending());
+            await(() -> engine.getDelivered() == 2);
+            engine.close();
+            assertEquals(0, engine.getPending());
+            assertEquals(2, up.getAccepted());
+        }
+
+        try (FakeSmtpServer up = new FakeSmtpServer(0)) {
+            DeliveryEngine reopened = new DeliveryEngine(settings(up), outbox);
+            assertEquals(0, reopened.getPending());
+            reopened.close();
+        }
+    }
+
+    private static SmtpSettings settings(FakeSmtpServer server) {
+        SmtpSettings settings = new SmtpSettings("127.0.0.1", server.getPort(), "form@exemplo.com.br", "contato@exemplo.com.br");
+        settings.setRetryBaseMillis(RETRY_BASE_MILLIS);
+        settings.setRetryMaxMillis(RETRY_BASE_MILLIS * 4);
+        settings.setSocketTimeoutMillis(5_000);
+        return settings;
+    }
+
+    private static Message message(int n) {
+        return new Message("Pessoa " + n, "pessoa" + n + "@exemplo.com", "Mensagem " + n);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("tempo esgotado esperando a entrega");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.app.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor SMTP mínimo, em processo, para testar e medir a entrega sem rede.
+ * Anuncia PIPELINING, aceita tudo e, com {@code failEvery > 0}, recusa o RCPT de uma
+ * em cada {@code failEvery} transações: com 451 (temporário, força novas tentativas)
+ * ou, se {@code permanent}, com 550.
+ */
+public final class FakeSmtpServer implements Closeable {
+
+    private final ServerSocket server;
+    private final int failEvery;
+    private final boolean permanent;
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+    private volatile boolean closed;
+
+    public FakeSmtpServer(int failEvery) throws IOException {
+        this(failEvery, false);
+    }
+
+    public FakeSmtpServer(int failEvery, boolean permanent) throws IOException {
+        this.failEvery = failEvery;
+        this.permanent = permanent;
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() { return server.getLocalPort(); }
+    public long getAccepted() { return accepted.get(); }
+    public long getConnections() { return connections.get(); }
+    public long getTransactions() { return transactions.get(); }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                connections.incrementAndGet();
+                Thread t = new Thread(() -> serve(socket), "fake-smtp-session");
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                if (!closed) System.err.println("fake-smtp: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            reply(out, in, "220 fake.local ESMTP");
+            boolean failing = false;
+            String line;
+            while ((line = readLine(in)) != null) {
+                String cmd = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (cmd) {
+                    case "EHLO" -> reply(out, in, "250-fake.local\r\n250-PIPELINING\r\n250 8BITMIME");
+                    case "HELO" -> reply(out, in, "250 fake.local");
+                    case "MAIL" -> {
+                        long n = transactions.incrementAndGet();
+                        failing = failEvery > 0 && n % failEvery == 0;
+                        reply(out, in, "250 OK");
+                    }
+                    case "RCPT" -> reply(out, in, !failing ? "250 OK"
+                            : permanent ? "550 Caixa postal inexistente" : "451 Tente mais tarde");
+                    case "DATA" -> {
+                        if (failing) {
+                            reply(out, in, "554 Sem destinatários válidos");
+                        } else {
+                            reply(out, in, "354 Termine com <CRLF>.<CRLF>");
+                            String body;
+                            while ((body = readLine(in)) != null && !body.equals(".")) { /* descarta */ }
+                            accepted.incrementAndGet();
+                            reply(out, in, "250 OK");
+                        }
+                    }
+                    case "RSET", "NOOP" -> {
+                        failing = false;
+                        reply(out, in, "250 OK");
+                    }
+                    case "QUIT" -> {
+                        reply(out, in, "221 Até logo");
+                        return;
+                    }
+                    default -> reply(out, in, "502 Comando não implementado");
+                }
+            }
+        } catch (IOException ignored) {
+            // Cliente encerrou a conexão
+        }
+    }
+
+    /** Só envia quando não há mais comandos já recebidos (respostas em lote, como no pipelining). */
+    private static void reply(OutputStream out, InputStream in, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+        out.write('\r');
+        out.write('\n');
+        if (in.available() == 0) out.flush();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') {
+                int len = sb.length();
+                if (len > 0 && sb.charAt(len - 1) == '\r') sb.setLength(len - 1);
+                return sb.toString();
+            }
+            sb.append((char) c);
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.app.service;
+
+import com.example.app.model.Message;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Repetidos e excesso de envios, inclusive com verificações simultâneas. */
+class IntakeFilterTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    void duplicateWithinWindowAndRateLimit() {
+        IntakeFilter filter = new IntakeFilter(60, TimeUnit.SECONDS, 1024, 2, 6, TimeUnit.SECONDS);
+        long now = 1_000_000_000L;
+        Message first = new Message("Ana", "ana@exemplo.com", "Olá");
+        assertEquals(IntakeFilter.Verdict.ACCEPTED, filter.check(first, now));
+        assertEquals(IntakeFilter.Verdict.DUPLICATE, filter.check(new Message("Ana", "ANA@exemplo.com", "Olá"), now + 1));
+        assertEquals(IntakeFilter.Verdict.ACCEPTED, filter.check(new Message("Ana", "ana@exemplo.com", "2"), now + 2));
+        assertEquals(IntakeFilter.Verdict.RATE_LIMITED, filter.check(new Message("Ana", "ana@exemplo.com", "3"), now + 3));
+        // Recusado por excesso: o mesmo conteúdo pode ser reenviado quando houver ficha
+        assertEquals(IntakeFilter.Verdict.ACCEPTED,
+                filter.check(new Message("Ana", "ana@exemplo.com", "3"), now + TimeUnit.SECONDS.toNanos(6)));
+        assertEquals(1, filter.getDuplicateCount());
+        assertEquals(1, filter.getRateLimitedCount());
+    }
+
+    @Test
+    void concurrentIdenticalSubmissionsAcceptOnce() throws Exception {
+        IntakeFilter filter = new IntakeFilter();
+        for (int round = 0; round < 2_000; round++) {
+            Message m = new Message("Ana", "ana" + round + "@exemplo.com", "Mensagem " + round);
+            AtomicInteger accepted = new AtomicInteger();
+            runConcurrently(() -> {
+                if (filter.check(m) == IntakeFilter.Verdict.ACCEPTED) accepted.incrementAndGet();
+            });
+            assertEquals(1, accepted.get(), "rodada " + round);
+        }
+    }
+
+    @Test
+    void sweepDoesNotLoseTokensOfActiveSenders() throws Exception {
+        // Tudo no mesmo instante, uma ficha por remetente: o segundo envio é sempre recusado.
+        // Acima de 10 mil remetentes cada remetente novo roda sweep(), que só pode descartar
+        // baldes recém-criados (ainda cheios) e concorre com o acquire() de outra thread.
+        IntakeFilter filter = new IntakeFilter(1, TimeUnit.NANOSECONDS, 8, 1, 1, TimeUnit.HOURS);
+        long now = 1_000_000_000L;
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger leaked = new AtomicInteger();
+        runConcurrently(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                String email = "p" + next.getAndIncrement() + "@exemplo.com";
+                filter.check(new Message("P", email, "a"), now);
+                if (filter.check(new Message("P", email, "b"), now) == IntakeFilter.Verdict.ACCEPTED) {
+                    leaked.incrementAndGet();
+                }
+            }
+        });
+        assertEquals(0, leaked.get());
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                task.run();
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) thread.join();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.app.service;
+
+import com.example.app.model.Message;
+import com.example.app.model.MessageHistory;
+import com.example.app.util.Metrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/** Duas instâncias no mesmo arquivo: volta do anel, arquivos recusados e registro corrompido. */
+class SharedHistoryTest {
+
+    private static final int CAPACITY = 4096; // mínimo: o anel dá várias voltas no teste
+    private static final int HEADER_SIZE = 64;
+    private static final int OFF_SEQ = 16;
+    private static final int OFF_TAIL = 32;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void publishedMessagesArriveAcrossRingWrap() throws Exception {
+        Path file = dir.resolve("shared");
+        MessageHistory a = new MessageHistory(1000);
+        MessageHistory b = new MessageHistory(1000);
+        try (SharedHistory sa = SharedHistory.open(file, a, CAPACITY);
+             SharedHistory sb = SharedHistory.open(file, b, CAPACITY)) {
+            int total = 0;
+            for (int round = 0; round < 8; round++) {
+                // Uma rodada cabe no anel; a seguinte só depois de a outra instância ler
+                for (int i = 0; i < 40; i++) a.addMessage(message(total++));
+                int expected = total;
+                await(() -> b.getMessageCount() == expected);
+            }
+            assertTrue(header(file, OFF_TAIL) > 4L * CAPACITY, "o anel deveria ter dado várias voltas");
+
+            List<Message> received = b.getAllMessages();
+            for (int i = 0; i < total; i++) assertEquals("Pessoa " + i, received.get(i).getName());
+
+            // E no sentido contrário; o que veio da outra instância não é republicado
+            b.addMessage(message(total));
+            await(() -> a.getMessageCount() == 321);
+            assertEquals(321, b.getMessageCount());
+        }
+    }
+
+    @Test
+    void foreignFileIsRefusedAndLeftUntouched() throws Exception {
+        Path file = dir.resolve("notas.txt");
+        byte[] text = "não é um histórico compartilhado\n".repeat(10).getBytes(StandardCharsets.UTF_8);
+        Files.write(file, text);
+        IOException e = assertThrows(IOException.class, () -> SharedHistory.open(file, new MessageHistory(), CAPACITY));
+        assertTrue(e.getMessage().startsWith("Arquivo não é um histórico compartilhado"), e.getMessage());
+        assertArrayEquals(text, Files.readAllBytes(file));
+    }
+
+    @Test
+    void otherVersionIsRefusedAndLeftUntouched() throws Exception {
+        Path file = dir.resolve("shared");
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + CAPACITY);
+        header.putInt(0, 0x53465348).putInt(4, 2).putLong(8, CAPACITY);
+        Files.write(file, header.array());
+        IOException e = assertThrows(IOException.class, () -> SharedHistory.open(file, new MessageHistory(), CAPACITY));
+        assertTrue(e.getMessage().startsWith("Histórico compartilhado de outra versão"), e.getMessage());
+        assertArrayEquals(header.array(), Files.readAllBytes(file));
+    }
+
+    @Test
+    void corruptRecordIsSkipped() throws Exception {
+        Path file = dir.resolve("shared");
+        MessageHistory a = new MessageHistory(1000);
+        MessageHistory b = new MessageHistory(1000);
+        Metrics.Counter missed = Metrics.counter("shared.missed");
+        boolean metrics = Metrics.isEnabled();
+        Metrics.setEnabled(true);
+        try (SharedHistory sa = SharedHistory.open(file, a, CAPACITY);
+             SharedHistory sb = SharedHistory.open(file, b, CAPACITY)) {
+            a.addMessage(message(0));
+            await(() -> b.getMessageCount() == 1);
+
+            // Registro com tamanho menor que o próprio cabeçalho, publicado como se fosse válido
+            long missedBefore = missed.get();
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long seq = header(ch, OFF_SEQ);
+                long tail = header(ch, OFF_TAIL);
+                ch.write(ByteBuffer.allocate(4).putInt(0, 3), HEADER_SIZE + tail % CAPACITY);
+                ch.write(ByteBuffer.allocate(8).putLong(0, tail + 8), OFF_TAIL);
+                ch.write(ByteBuffer.allocate(8).putLong(0, seq + 1), OFF_SEQ);
+            }
+            // As duas instâncias leem o anel (cada uma ignora só os próprios registros)
+            await(() -> missed.get() >= missedBefore + 2);
+
+            // A consulta seguinte continua funcionando
+            a.addMessage(message(1));
+            await(() -> b.getMessageCount() == 2);
+            assertEquals(Arrays.asList("Pessoa 0", "Pessoa 1"),
+                    b.getAllMessages().stream().map(Message::getName).toList());
+        } finally {
+            Metrics.setEnabled(metrics);
+        }
+    }
+
+    private static Message message(int n) {
+        return new Message("Pessoa " + n, "pessoa" + n + "@exemplo.com", "Mensagem " + n);
+    }
+
+    private static long header(Path file, int offset) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return header(ch, offset);
+        }
+    }
+
+    private static long header(FileChannel ch, int offset) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8);
+        ch.read(buf, offset);
+        return buf.getLong(0);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("tempo esgotado esperando o histórico compartilhado");
+            Thread.sleep(10);
+        }
+    }
+}
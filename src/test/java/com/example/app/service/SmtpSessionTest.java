@@ -0,0 +1,114 @@
+package com.example.app.service;
+
+import com.example.app.model.Message;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Formato do DATA: limite de linha do SMTP e escolha entre 8bit e quoted-printable. */
+class SmtpSessionTest {
+
+    private static final String FROM = "form@exemplo.com.br";
+    private static final String TO = "contato@exemplo.com.br";
+
+    @Test
+    void longLineIsQuotedPrintableEvenWith8BitMime() {
+        String body = "ação=".repeat(600) + "\n.linha com ponto \n fim";
+        String data = format(body, true);
+        assertTrue(data.contains("Content-Transfer-Encoding: quoted-printable\r\n"));
+        assertLinesWithin(data, 76);
+        assertEquals(body, decodeQuotedPrintable(bodyOf(data)));
+    }
+
+    @Test
+    void eightBitOnlyWhenAdvertised() {
+        String body = "Olá, mundo\n.começa com ponto";
+        String raw = format(body, true);
+        assertTrue(raw.contains("Content-Transfer-Encoding: 8bit\r\n"));
+        assertEquals("Olá, mundo\r\n..começa com ponto\r\n", bodyOf(raw));
+
+        String encoded = format(body, false);
+        assertTrue(encoded.contains("Content-Transfer-Encoding: quoted-printable\r\n"));
+        assertTrue(encoded.chars().allMatch(c -> c < 128), "quoted-printable deve ser ASCII");
+        assertEquals(body, decodeQuotedPrintable(bodyOf(encoded)));
+    }
+
+    @Test
+    void rawLinesNeverExceedSmtpLimit() {
+        String atLimit = format("é".repeat(499) + "\n" + "x".repeat(998), true);
+        assertTrue(atLimit.contains("Content-Transfer-Encoding: 8bit\r\n"), "998 octetos ainda cabem");
+        assertLinesWithin(new String(atLimit.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1), 998);
+
+        assertTrue(format("é".repeat(500), true).contains("Content-Transfer-Encoding: quoted-printable\r\n"));
+        assertTrue(format("." + "x".repeat(997), true).contains("Content-Transfer-Encoding: quoted-printable\r\n"),
+                "o ponto duplicado conta no limite");
+    }
+
+    @Test
+    void longNonAsciiSubjectIsSplitIntoEncodedWords() {
+        String name = "João Ção 😀 ".repeat(20);
+        byte[] data = SmtpSession.format(FROM, TO, new Message(name, "ana@exemplo.com", "Olá"), true);
+        String text = new String(data, StandardCharsets.US_ASCII);
+        String header = text.substring(0, text.indexOf("\r\n\r\n") + 2);
+        int start = header.indexOf("Subject: ");
+        String subject = header.substring(start, header.indexOf("\r\n", start) + 2);
+        while (header.startsWith(" ", start + subject.length())) {
+            subject += header.substring(start + subject.length(), header.indexOf("\r\n", start + subject.length()) + 2);
+        }
+
+        StringBuilder decoded = new StringBuilder();
+        for (String line : subject.split("\r\n")) {
+            assertTrue(line.length() <= 76, "linha com " + line.length() + " caracteres");
+            String word = line.substring(line.indexOf("=?"));
+            assertTrue(word.length() <= 75 && word.startsWith("=?UTF-8?B?") && word.endsWith("?="), word);
+            // Cada palavra decodifica sozinha: nenhum caractere fica dividido
+            decoded.append(new String(Base64.getDecoder().decode(word.substring(10, word.length() - 2)),
+                    StandardCharsets.UTF_8));
+        }
+        assertEquals("Contato: " + name, decoded.toString());
+    }
+
+    private static String format(String body, boolean eightBitMime) {
+        byte[] data = SmtpSession.format(FROM, TO, new Message("Ana", "ana@exemplo.com", body), eightBitMime);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /** Corpo entre a linha em branco e o {@code .} final. */
+    private static String bodyOf(String data) {
+        int start = data.indexOf("\r\n\r\n") + 4;
+        assertTrue(data.endsWith("\r\n.\r\n"));
+        return data.substring(start, data.length() - 3);
+    }
+
+    private static void assertLinesWithin(String data, int max) {
+        for (String line : data.split("\r\n")) {
+            assertTrue(line.length() <= max, "linha com " + line.length() + " caracteres");
+        }
+    }
+
+    private static String decodeQuotedPrintable(String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String[] lines = text.split("\r\n", -1);
+        for (int l = 0; l < lines.length - 1; l++) {
+            String line = lines[l];
+            boolean soft = line.endsWith("=");
+            if (soft) line = line.substring(0, line.length() - 1);
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '=') {
+                    out.write(Integer.parseInt(line.substring(i + 1, i + 3), 16));
+                    i += 2;
+                } else {
+                    out.write(c);
+                }
+            }
+            if (!soft && l < lines.length - 2) out.write('\n');
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
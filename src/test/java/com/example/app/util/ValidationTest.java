@@ -0,0 +1,109 @@
+package com.example.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Equivalência do scanner de {@link Validation} com a implementação antiga
+ * (regex sobre {@code trim()}), em strings aleatórias curtas sobre um alfabeto
+ * concentrado nos caracteres que decidem o resultado.
+ */
+class ValidationTest {
+
+    private static final Pattern OLD_EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final int SAMPLES = 300_000;
+    private static final int MAX_LENGTH = 12;
+
+    /** '@', '.', todo {@code \s}, outros controles, espaços Unicode, NBSP, metades de surrogate e letras. */
+    private static final char[] ALPHABET = {
+            '@', '.', '.', 'a', 'b', 'Z', '0', '-', '_', 'é',
+            ' ', '\t', '\n', '\u000B', '\f', '\r',
+            '\u0000', '\u0001', '\u001F', '\u007F',
+            '\u0085', '\u00A0', '\u2028', '\u3000', '\uD83D', '\uDE00'
+    };
+
+    private static boolean oldNotBlank(String s) {
+        return s != null && !s.trim().isEmpty();
+    }
+
+    private static boolean oldIsEmail(String s) {
+        return oldNotBlank(s) && OLD_EMAIL.matcher(s.trim()).matches();
+    }
+
+    private static String randomString(Random random) {
+        char[] chars = new char[random.nextInt(MAX_LENGTH + 1)];
+        for (int i = 0; i < chars.length; i++) {
+            // Metade dos caracteres são letras, para gerar e-mails válidos com frequência
+            chars[i] = random.nextBoolean() ? ALPHABET[random.nextInt(ALPHABET.length)] : (char) ('a' + random.nextInt(3));
+        }
+        return new String(chars);
+    }
+
+    @Test
+    void notBlankMatchesTrim() {
+        Random random = new Random(7);
+        for (int n = 0; n < SAMPLES; n++) {
+            String s = randomString(random);
+            assertEquals(oldNotBlank(s), Validation.notBlank(s), () -> "notBlank(\"" + escape(s) + "\")");
+            assertEquals(oldNotBlank(s), Validation.notBlank(new StringBuilder(s)), () -> "notBlank(sb \"" + escape(s) + "\")");
+        }
+    }
+
+    @Test
+    void isEmailMatchesRegex() {
+        Random random = new Random(11);
+        int accepted = 0;
+        for (int n = 0; n < SAMPLES; n++) {
+            String s = randomString(random);
+            boolean expected = oldIsEmail(s);
+            if (expected) accepted++;
+            assertEquals(expected, Validation.isEmail(s), () -> "isEmail(\"" + escape(s) + "\")");
+            assertEquals(expected, Validation.isEmail(new StringBuilder(s)), () -> "isEmail(sb \"" + escape(s) + "\")");
+        }
+        assertTrue(accepted > SAMPLES / 1000, "poucos e-mails válidos gerados: " + accepted);
+    }
+
+    @Test
+    void rangeOverloadsMatchSubstring() {
+        Random random = new Random(13);
+        for (int n = 0; n < SAMPLES; n++) {
+            String s = randomString(random);
+            int from = random.nextInt(s.length() + 1);
+            int to = from + random.nextInt(s.length() - from + 1);
+            String part = s.substring(from, to);
+            assertEquals(oldNotBlank(part), Validation.notBlank(s, from, to),
+                    () -> "notBlank(\"" + escape(s) + "\", " + from + ", " + to + ")");
+            assertEquals(oldIsEmail(part), Validation.isEmail(s, from, to),
+                    () -> "isEmail(\"" + escape(s) + "\", " + from + ", " + to + ")");
+        }
+    }
+
+    @Test
+    void examples() {
+        assertTrue(Validation.isEmail("  ana@exemplo.com.br \n"));
+        assertTrue(Validation.isEmail("a@b.c"));
+        assertFalse(Validation.isEmail("a@.c"));
+        assertFalse(Validation.isEmail("a@b."));
+        assertFalse(Validation.isEmail("a@b@c.d"));
+        assertFalse(Validation.isEmail("a b@c.d"));
+        assertFalse(Validation.isEmail(null));
+        assertFalse(Validation.notBlank(" \t\u0001\n"));
+        assertTrue(Validation.notBlank("\u00A0")); // NBSP não é removido por trim()
+        assertFalse(Validation.notBlank(null));
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            if (c >= ' ' && c < 127) sb.append(c);
+            else sb.append(String.format("\\u%04X", (int) c));
+        }
+        return sb.toString();
+    }
+}